@@ -0,0 +1,72 @@
+/*
+ * Zeus Interest Calculator – BenchmarkRequests
+ * --------------------------------------------
+ * Gemeinsame Eingabedaten für die JMH-Benchmarks.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.benchmark;
+
+import de.zeus.interest.dto.PaymentPlanRequest;
+import de.zeus.interest.model.CalculationMode;
+import de.zeus.interest.service.AmortizationEngine;
+import de.zeus.interest.service.DepositCalculationService;
+import de.zeus.interest.service.LoanCalculationService;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Erzeugt reproduzierbare Anfragen für die Benchmarks.
+ * Bei Krediten wird die Rate so gewählt, dass der Plan (ohne Sonderzahlungen) die volle Laufzeit erreicht.
+ */
+final class BenchmarkRequests {
+
+    private BenchmarkRequests() {
+        // Utility class – kein Konstruktor erlaubt
+    }
+
+    /** Engine ohne Spring-Kontext */
+    static AmortizationEngine engine() {
+        return new AmortizationEngine(new LoanCalculationService(), new DepositCalculationService());
+    }
+
+    /**
+     * @param mode   Kredit oder Einlage
+     * @param months Laufzeit in Monaten
+     * @param extras true = jährliche Sonderzahlung in jedem 12. Monat
+     */
+    static PaymentPlanRequest request(CalculationMode mode, int months, boolean extras) {
+        PaymentPlanRequest req = new PaymentPlanRequest();
+        req.setMode(mode);
+        req.setInterestRate(5.63);
+        req.setPaymentMonths(months);
+        req.setContractDate(LocalDate.of(2025, 1, 15));
+        req.setFirstPaymentDate(LocalDate.of(2025, 3, 1));
+
+        if (mode == CalculationMode.LOAN) {
+            double principal = 15000.0 * Math.max(1, months / 48);
+            double r = 5.63 / 1200;
+            req.setInitialValue(principal);
+            // Annuität leicht aufgerundet, damit die Laufzeit voll ausgeschöpft wird
+            req.setPaymentAmount(Math.ceil(principal * r / (1 - Math.pow(1 + r, -months)) * 100) / 100);
+        } else {
+            req.setInitialValue(1000.0);
+            req.setPaymentAmount(100.0);
+        }
+
+        Map<Integer, Double> extraPayments = new HashMap<>();
+        if (extras) {
+            for (int month = 12; month < months; month += 12) {
+                extraPayments.put(month, 50.0);
+            }
+        }
+        req.setExtraPayments(extraPayments);
+        return req;
+    }
+}
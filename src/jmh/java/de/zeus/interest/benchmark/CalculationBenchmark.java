@@ -0,0 +1,81 @@
+/*
+ * Zeus Interest Calculator – CalculationBenchmark
+ * -----------------------------------------------
+ * JMH-Benchmarks für Berechnung und Aufbereitung von Zahlungsplänen.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.benchmark;
+
+import de.zeus.interest.dto.PaymentPlanRequest;
+import de.zeus.interest.dto.PaymentPlanResponse;
+import de.zeus.interest.model.AmortizationSchedule;
+import de.zeus.interest.model.CalculationMode;
+import de.zeus.interest.service.AmortizationEngine;
+import de.zeus.interest.service.PaymentPlanResponseMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst den kompletten Plan-Durchlauf: Engine allein, Engine in wiederverwendeten Plan
+ * sowie die String-Aufbereitung der Zeilen (vormals {@code InterestController.mapToResponse}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculationBenchmark {
+
+    @Param({"12", "120", "600"})
+    public int months;
+
+    @Param({"LOAN", "DEPOSIT"})
+    public CalculationMode mode;
+
+    @Param({"false", "true"})
+    public boolean extras;
+
+    private AmortizationEngine engine;
+    private PaymentPlanResponseMapper mapper;
+    private PaymentPlanRequest request;
+    private AmortizationSchedule reusable;
+    private AmortizationSchedule computed;
+
+    @Setup
+    public void setup() {
+        engine = BenchmarkRequests.engine();
+        mapper = new PaymentPlanResponseMapper();
+        request = BenchmarkRequests.request(mode, months, extras);
+        reusable = new AmortizationSchedule(mode, months);
+        computed = engine.calculate(request);
+    }
+
+    @Benchmark
+    public AmortizationSchedule engineCalculate() {
+        return engine.calculate(request);
+    }
+
+    @Benchmark
+    public AmortizationSchedule engineCalculateReused() {
+        engine.calculate(request, reusable);
+        return reusable;
+    }
+
+    @Benchmark
+    public List<PaymentPlanResponse> mapToResponses() {
+        return mapper.toResponses(computed);
+    }
+
+    @Benchmark
+    public List<PaymentPlanResponse> calculateAndMap() {
+        return mapper.toResponses(engine.calculate(request));
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Zeus Interest Calculator – PeriodBenchmark
+ * ------------------------------------------
+ * JMH-Benchmarks für die Berechnung einer einzelnen Periode.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.benchmark;
+
+import de.zeus.interest.model.PaymentPlanElement;
+import de.zeus.interest.service.DepositCalculationService;
+import de.zeus.interest.service.LoanCalculationService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst die Strategien {@code calculate} je Periode und die Rundung in
+ * {@link PaymentPlanElement#setAmountChangeValue(double)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PeriodBenchmark {
+
+    private final LoanCalculationService loanService = new LoanCalculationService();
+    private final DepositCalculationService depositService = new DepositCalculationService();
+    private PaymentPlanElement element;
+    private double change;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        element = new PaymentPlanElement();
+        element.setInitialValue(15000.0);
+        element.setInterestRate(5.63);
+        element.setRegularPaymentAmount(351.2);
+        element.setTimeInDays(30);
+        change = 280.8249999;
+    }
+
+    @Benchmark
+    public double loanCalculate() {
+        loanService.calculate(element);
+        return element.getFutureValue();
+    }
+
+    @Benchmark
+    public double depositCalculate() {
+        depositService.calculate(element);
+        return element.getFutureValue();
+    }
+
+    @Benchmark
+    public double setAmountChangeValue() {
+        // Wert leicht variieren, damit der JIT die Rundung nicht herausfaltet
+        change += 0.001;
+        element.setAmountChangeValue(change);
+        return element.getAmountChangeValue();
+    }
+}
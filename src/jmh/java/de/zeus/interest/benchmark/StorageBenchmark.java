@@ -0,0 +1,122 @@
+/*
+ * Zeus Interest Calculator – StorageBenchmark
+ * -------------------------------------------
+ * JMH-Benchmarks für Speichern und Laden von Zahlungsplänen.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.zeus.interest.dto.PaymentPlanResponse;
+import de.zeus.interest.dto.PlanPage;
+import de.zeus.interest.model.AmortizationSchedule;
+import de.zeus.interest.model.CalculationMode;
+import de.zeus.interest.service.PaymentPlanResponseMapper;
+import de.zeus.interest.service.LogPlanStore;
+import de.zeus.interest.service.PaymentPlanStorageService;
+import de.zeus.interest.service.PlanFormat;
+import de.zeus.interest.service.PlanJsonReader;
+import de.zeus.interest.service.PlanStore;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Misst beide {@link PlanStore}-Implementierungen gegen ein temporäres Verzeichnis
+ * (Log-Speicher ohne fsync je Datensatz, damit beide gleich viel auf die Platte zwingen).
+ * Neu angelegte Pläne werden im selben Aufruf wieder gelöscht, damit das Verzeichnis nicht anwächst.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StorageBenchmark {
+
+    // Plan-Parameter standardmäßig fest, damit der Lauf die Speichervarianten vergleicht (12 Kombinationen);
+    // volle Matrix z. B. mit -Djmh.args="-p months=12,120,600 -p mode=LOAN,DEPOSIT -p extras=false,true"
+    @Param({"120"})
+    public int months;
+
+    @Param({"LOAN"})
+    public CalculationMode mode;
+
+    @Param({"false"})
+    public boolean extras;
+
+    @Param({"JSON", "BINARY", "REQUEST"})
+    public PlanFormat format;
+
+    @Param({"false", "true"})
+    public boolean compressed;
+
+    @Param({"directory", "log"})
+    public String store;
+
+    private Path dir;
+    private PlanStore storage;
+    private AmortizationSchedule plan;
+    private String fileId;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("zeus-jmh-");
+        ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+        PlanJsonReader jsonReader = new PlanJsonReader(mapper, 100_000, DataSize.ofMegabytes(64));
+        storage = "log".equals(store)
+                ? new LogPlanStore(dir.toString(), format, compressed, 6, 64 << 20, false, 0.5, 0,
+                        mapper, jsonReader, BenchmarkRequests.engine(), new PaymentPlanResponseMapper())
+                : new PaymentPlanStorageService(dir.toString(), true, false, format, compressed, 6,
+                        mapper, jsonReader, BenchmarkRequests.engine(), new PaymentPlanResponseMapper());
+        plan = BenchmarkRequests.engine().calculate(BenchmarkRequests.request(mode, months, extras));
+        fileId = storage.save(plan);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (storage instanceof LogPlanStore log) {
+            log.stop();
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public boolean saveAndDelete() {
+        return storage.delete(storage.save(plan));
+    }
+
+    @Benchmark
+    public void saveTo() {
+        storage.saveTo(fileId, plan);
+    }
+
+    @Benchmark
+    public List<PaymentPlanResponse> load() {
+        return storage.load(fileId);
+    }
+
+    @Benchmark
+    public byte[] loadRaw() throws IOException {
+        return storage.loadRaw(fileId);
+    }
+
+    @Benchmark
+    public PlanPage listFirstPage() {
+        return storage.list(null, 50);
+    }
+}
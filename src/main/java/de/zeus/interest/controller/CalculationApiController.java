@@ -0,0 +1,118 @@
+package de.zeus.interest.api;
+
+import de.zeus.interest.dto.BalanceResult;
+import de.zeus.interest.dto.BatchCalculationResult;
+import de.zeus.interest.dto.BatchEffectiveRateResult;
+import de.zeus.interest.dto.BatchSummaryResult;
+import de.zeus.interest.dto.CacheStatistics;
+import de.zeus.interest.dto.PaymentPlanRequest;
+import de.zeus.interest.dto.PlanSummary;
+import de.zeus.interest.dto.ScheduleResponse;
+import de.zeus.interest.dto.SolverResult;
+import de.zeus.interest.model.SolveTarget;
+import de.zeus.interest.service.AnnuitySolver;
+import de.zeus.interest.service.BatchCalculationService;
+import de.zeus.interest.service.PaymentPlanResponseMapper;
+import de.zeus.interest.service.PaymentPlanService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/calculations")
+@RequiredArgsConstructor
+public class CalculationApiController {
+
+    private final PaymentPlanService paymentPlanService;
+    private final PaymentPlanResponseMapper responseMapper;
+    private final BatchCalculationService batchService;
+    private final AnnuitySolver annuitySolver;
+
+    /**
+     * Zustandslose Berechnung: numerische Antwort (Beträge als Dezimalzahl, Daten ISO), keine Session.
+     */
+    @PostMapping
+    public ResponseEntity<ScheduleResponse> calculate(@RequestBody PaymentPlanRequest request) {
+        paymentPlanService.validateRequest(request);
+        return ResponseEntity.ok(responseMapper.toScheduleResponse(paymentPlanService.calculateChecked(request, null)));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchCalculationResult>> calculateBatch(@RequestBody List<PaymentPlanRequest> requests) {
+        if (requests.size() > batchService.getMaxBatchSize()) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        return ResponseEntity.ok(batchService.calculate(requests));
+    }
+
+    /**
+     * Nur Kennzahlen (Zinsen, Zahlungen, Enddatum, Perioden, Restschuld) – ohne Zeilen, bei gleichen Summen
+     * wie der vollständige Plan.
+     */
+    @PostMapping("/summary")
+    public ResponseEntity<PlanSummary> summarize(@RequestBody PaymentPlanRequest request) {
+        paymentPlanService.validateRequest(request);
+        return ResponseEntity.ok(paymentPlanService.summarize(request));
+    }
+
+    @PostMapping("/batch/summary")
+    public ResponseEntity<List<BatchSummaryResult>> summarizeBatch(@RequestBody List<PaymentPlanRequest> requests) {
+        if (requests.size() > batchService.getMaxBatchSize()) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        return ResponseEntity.ok(batchService.summarize(requests));
+    }
+
+    /** Effektiver Jahreszins (PAngV) je Anfrage, z. B. für Angebotslisten; ohne Zeilen in der Antwort. */
+    @PostMapping("/batch/effective-rate")
+    public ResponseEntity<List<BatchEffectiveRateResult>> effectiveRateBatch(@RequestBody List<PaymentPlanRequest> requests) {
+        if (requests.size() > batchService.getMaxBatchSize()) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        return ResponseEntity.ok(batchService.effectiveRates(requests));
+    }
+
+    /**
+     * Bestimmt die fehlende Größe ({@code solveFor}) aus den übrigen Eingaben, z. B. die Rate, mit der ein Kredit
+     * in der angegebenen Laufzeit getilgt ist. Der Wert der gesuchten Größe in der Anfrage wird ignoriert.
+     */
+    @PostMapping("/solve")
+    public ResponseEntity<SolverResult> solve(@RequestBody PaymentPlanRequest request,
+                                              @RequestParam SolveTarget solveFor,
+                                              @RequestParam(defaultValue = "0") double targetBalance) {
+        return ResponseEntity.ok(annuitySolver.solve(request, solveFor, targetBalance));
+    }
+
+    /**
+     * Restschuld bzw. Guthaben nach Monat {@code month} (mehrfach angebbar), ohne den Plan zu berechnen;
+     * die Eingaben kommen wie beim Formular als Parameter ({@code ...&month=120&month=180}).
+     * <p>
+     * Ohne {@code exact=true} stammt der Wert aus der geschlossenen Form und ist nicht centgenau: Die Abweichung
+     * vom berechneten Plan wächst mit Laufzeit und Zins (bis {@code ½ Cent · ((1 + i)^n − 1) / i} nach Monat
+     * {@code n} bei Monatszins {@code i}, z. B. bis 5,02 € nach 30 Jahren zu 6 %). Für Beträge, die zum Plan
+     * passen müssen, {@code exact=true} verwenden.
+     */
+    @GetMapping("/balance")
+    public ResponseEntity<List<BalanceResult>> balance(@ModelAttribute PaymentPlanRequest request,
+                                                       @RequestParam List<Integer> month,
+                                                       @RequestParam(defaultValue = "false") boolean exact) {
+        paymentPlanService.validateRequest(request);
+        return ResponseEntity.ok(paymentPlanService.balancesAt(request, month, exact));
+    }
+
+    /** Treffer-, Fehl- und Verdrängungszähler des Ergebnis-Caches. */
+    @GetMapping("/cache")
+    public CacheStatistics cacheStatistics() {
+        return paymentPlanService.getCacheStatistics();
+    }
+
+    /** Validierungsfehler als JSON statt Redirect (vorrangig vor dem globalen Handler). */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleIllegalArgument(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(ex.getMessage())));
+    }
+}
@@ -14,13 +14,13 @@ package de.zeus.interest.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import de.zeus.interest.dto.PaymentPlanRequest;
 import de.zeus.interest.dto.PaymentPlanResponse;
+import de.zeus.interest.model.AmortizationSchedule;
 import de.zeus.interest.model.CalculationMode;
-import de.zeus.interest.model.PaymentPlanElement;
-import de.zeus.interest.service.CalculationService;
-import de.zeus.interest.service.DepositCalculationService;
-import de.zeus.interest.service.LoanCalculationService;
-import de.zeus.interest.service.PaymentPlanStorageService;
-import de.zeus.interest.util.InterestUtils;
+import de.zeus.interest.service.PaymentPlanResponseMapper;
+import de.zeus.interest.service.PaymentPlanService;
+import de.zeus.interest.service.PlanFormatException;
+import de.zeus.interest.service.PlanJsonReader;
+import de.zeus.interest.service.PlanStore;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
@@ -42,27 +42,31 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.beans.PropertyEditorSupport;
 import java.io.IOException;
-import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.FormatStyle;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
 /**
  * Controller zur Steuerung des Zinsrechners (Formularanzeige, Berechnung, Sondertilgungen, Import/Export).
- * Verwendet das Strategy-Pattern (Loan/DepositService) und unterstützt Upload/Download im JSON-Format.
+ * Die Berechnung erfolgt über die {@link PaymentPlanService} (Strategy-Pattern Loan/DepositService); unterstützt Upload/Download im JSON-Format.
  */
 @Controller
 @RequestMapping("/interest")
 @RequiredArgsConstructor
 public class InterestController {
 
-    private final LoanCalculationService loanService;
-    private final DepositCalculationService depositService;
+    /** Session-Attribut mit dem zuletzt berechneten Plan (Basis für inkrementelle Neuberechnung) */
+    private static final String SCHEDULE = "schedule";
+
+    /** Anzahl gespeicherter Pläne in der Auswahlliste des Formulars */
+    private static final int FORM_PLAN_LIMIT = 100;
+
+    private final PaymentPlanService paymentPlanService;
     private final MessageSource messageSource;
-    private final PaymentPlanStorageService storageService;
+    private final PlanStore storageService;
+    private final PlanJsonReader planJsonReader;
+    private final PaymentPlanResponseMapper responseMapper;
+    private final ObjectMapper objectMapper;
 
     /* -------------------------------------------------- Init-Binder -------------------------------------------------- */
     @InitBinder
@@ -97,9 +101,24 @@ public class InterestController {
 
         // Laden über planId → sofort zu /interest/result springen
         if (planId != null) {
+            session.setAttribute("savedPlanId", planId);
+
+            // im Eingabeformat gespeichert → neu berechnen, Eingaben unverändert übernehmen
+            PaymentPlanRequest stored = storageService.loadRequest(planId);
+            if (stored != null) {
+                AmortizationSchedule schedule = paymentPlanService.calculate(stored);
+                List<PaymentPlanResponse> results = paymentPlanService.toRows(schedule);
+                session.setAttribute(SCHEDULE, schedule);
+                session.setAttribute("results", results);
+                session.setAttribute("origRequest", stored);
+                session.setAttribute("firstDate", results.isEmpty() ? "" : results.get(0).getRepaymentDate());
+                session.setAttribute("monthlyRate", String.format("%.2f", stored.getPaymentAmount()));
+                return "redirect:/interest/result";
+            }
+
             List<PaymentPlanResponse> plan = storageService.load(planId);
             session.setAttribute("results", plan);
-            session.setAttribute("savedPlanId", planId);
+            session.removeAttribute(SCHEDULE);
 
             // firstDate und monthlyRate in die Session
             session.setAttribute("firstDate", plan.isEmpty() ? "" : plan.get(0).getRepaymentDate());
@@ -149,8 +168,8 @@ public class InterestController {
             session.setAttribute(SessionLocaleResolver.LOCALE_SESSION_ATTRIBUTE_NAME, new Locale(lang));
         }
 
-        // gespeicherte Plan-IDs
-        model.addAttribute("savedPlanIds", storageService.listAll());
+        // gespeicherte Plan-IDs (neueste, aus dem Index)
+        model.addAttribute("savedPlanIds", storageService.list(null, FORM_PLAN_LIMIT).getItems());
         model.addAttribute("paymentRequest", dto);
         model.addAttribute("currentPath", request.getRequestURI());
 
@@ -192,7 +211,9 @@ public class InterestController {
 
         try {
             validateRequest(request);
-            List<PaymentPlanResponse> results = doCalculation(request);
+            AmortizationSchedule schedule = paymentPlanService.calculate(request);
+            List<PaymentPlanResponse> results = paymentPlanService.toRows(schedule);
+            session.setAttribute(SCHEDULE, schedule);
             session.setAttribute("results", results);
             session.setAttribute("firstDate", results.isEmpty() ? "" : results.get(0).getRepaymentDate());
             session.setAttribute("monthlyRate", String.format("%.2f", request.getPaymentAmount()));
@@ -250,10 +271,10 @@ public class InterestController {
 
         try {
             validateRequest(req);
-            validateExtraPayments(req);
-
-            List<PaymentPlanResponse> results = doCalculation(req);
+            AmortizationSchedule schedule = calculateChecked(req, session);
+            List<PaymentPlanResponse> results = paymentPlanService.toRows(schedule);
 
+            session.setAttribute(SCHEDULE, schedule);
             session.setAttribute("results", results);
             session.setAttribute("firstDate", results.isEmpty() ? "" : results.get(0).getRepaymentDate());
             session.setAttribute("monthlyRate", String.format("%.2f", req.getPaymentAmount()));
@@ -282,27 +303,26 @@ public class InterestController {
         }
 
         validateRequest(request);
-        validateExtraPayments(request);
-
-        List<PaymentPlanResponse> results = doCalculation(request);
+        AmortizationSchedule schedule = calculateChecked(request, session);
+        session.setAttribute(SCHEDULE, schedule);
 
         String fileId = (String) session.getAttribute("savedPlanId");
         if (fileId != null) {
-            storageService.saveTo(fileId, results);
+            storageService.saveTo(fileId, schedule);
         } else {
-            fileId = storageService.save(results);
+            fileId = storageService.save(schedule);
             session.setAttribute("savedPlanId", fileId);
         }
 
-        byte[] data = storageService.loadRaw(fileId);
-        ByteArrayResource res = new ByteArrayResource(data);
+        // den soeben berechneten Plan senden, nicht die Datei erneut lesen (sie kann schon neu geschrieben sein)
+        byte[] body = objectMapper.writeValueAsBytes(responseMapper.toResponses(schedule));
 
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION,
                         "attachment; filename=\"payment-plan-" + fileId + ".json\"")
                 .contentType(MediaType.APPLICATION_JSON)
-                .contentLength(data.length)
-                .body(res);
+                .contentLength(body.length)
+                .body(new ByteArrayResource(body));
     }
 
     /* -------------------------------------------------- LADEN  (Upload) -------------------------------------------------- */
@@ -317,12 +337,11 @@ public class InterestController {
         }
 
         try {
-            PaymentPlanResponse[] arr =
-                    new ObjectMapper().readValue(file.getInputStream(), PaymentPlanResponse[].class);
-            List<PaymentPlanResponse> plan = List.of(arr);
+            List<PaymentPlanResponse> plan = planJsonReader.read(file.getInputStream());
 
             HttpSession session = request.getSession(true);
             session.setAttribute("results", plan);
+            session.removeAttribute(SCHEDULE);
             model.addAttribute("successMessage", "Plan erfolgreich geladen.");
 
             String fileName = file.getOriginalFilename();
@@ -334,6 +353,8 @@ public class InterestController {
             // Sonderzahlungen wiederherstellen
             restoreExtras(session, plan);
 
+        } catch (PlanFormatException ex) {
+            model.addAttribute("errorMessage", "Datei ist kein gültiger Zahlungsplan oder zu groß.");
         } catch (IOException ex) {
             model.addAttribute("errorMessage", "Datei konnte nicht gelesen werden.");
         }
@@ -353,7 +374,7 @@ public class InterestController {
                 .collect(Collectors.toMap(
                         r -> Integer.parseInt(r.getRunNumber()),
                         r -> {
-                            String s = r.getExtraPayment().replace(',', '.');
+                            String s = r.getExtraPayment() == null ? "" : r.getExtraPayment().replace(',', '.');
                             return s.isBlank() ? 0.0 : Double.parseDouble(s);
                         }
                 ));
@@ -380,117 +401,17 @@ public class InterestController {
         return "interest/result";
     }
 
-    private List<PaymentPlanResponse> doCalculation(PaymentPlanRequest req) {
-        CalculationService svc = req.getMode() == CalculationMode.LOAN ? loanService : depositService;
-
-        List<PaymentPlanResponse> list = new ArrayList<>();
-        PaymentPlanElement plan = createInitialPlan(req);
-        Map<Integer, Double> extras = Optional.ofNullable(req.getExtraPayments()).orElse(Collections.emptyMap());
-
-        for (int month = 1; month <= req.getPaymentMonths(); month++) {
-
-            if (!plan.isFirstRun()) {
-                plan.setTimeInDays(30);
-            }
-
-            // initiale Berechnung
-            svc.calculate(plan);
-
-            // manuelle Zinsen (nur im 1. Monat)
-            if (month == 1 && req.getManualFirstInterest() != null) {
-                double delta = req.getManualFirstInterest() - plan.getInterestAmount();
-                plan.setInterestAmount(req.getManualFirstInterest());
-                if (req.getMode() == CalculationMode.DEPOSIT) {
-                    plan.setFutureValue(plan.getFutureValue() + delta);
-                    plan.setAmountChangeValue(plan.getAmountChangeValue() + delta);
-                } else {
-                    plan.setFutureValue(plan.getFutureValue() - delta);
-                    plan.setAmountChangeValue(plan.getAmountChangeValue() + delta);
-                }
-            }
-
-            plan.setFirstRun(false);
-
-            // Sondertilgung
-            double extra = Optional.ofNullable(extras.get(month)).orElse(0.0);
-            if (extra != 0.0) {
-                if (req.getMode() == CalculationMode.DEPOSIT) {
-                    plan.setFutureValue(plan.getFutureValue() + extra);
-                    plan.setAmountChangeValue(plan.getAmountChangeValue() + extra);
-                } else {
-                    plan.setFutureValue(plan.getFutureValue() - extra);
-                    plan.setAmountChangeValue(plan.getAmountChangeValue() + extra);
-                }
-            }
-
-            // Kredit-spezifischer Abbruch
-            if (req.getMode() == CalculationMode.LOAN) {
-                if (plan.getFutureValue() < 0) {
-                    double corrected = plan.getRegularPaymentAmount() + plan.getFutureValue();
-                    plan.setRegularPaymentAmount(Math.max(0, corrected));
-                    svc.calculate(plan);
-                    list.add(mapToResponse(plan, extra));
-                    break;
-                }
-                if (plan.getInitialValue() < plan.getRegularPaymentAmount()) {
-                    plan.setRegularPaymentAmount(plan.getInitialValue());
-                    svc.calculate(plan);
-                    list.add(mapToResponse(plan, extra));
-                    break;
-                }
-            }
-
-            list.add(mapToResponse(plan, extra));
-            plan = plan.copyNextRun();
-        }
-
-        return list;
-    }
-
-
-    private PaymentPlanElement createInitialPlan(PaymentPlanRequest req) {
-        PaymentPlanElement plan = new PaymentPlanElement();
-        plan.setInitialValue(req.getInitialValue());
-        plan.setInterestRate(req.getInterestRate());
-        plan.setRegularPaymentAmount(req.getPaymentAmount());
-        plan.setRepaymentDate(req.getFirstPaymentDate());
-        plan.setTimeInDays((int) ChronoUnit.DAYS.between(req.getContractDate(), req.getFirstPaymentDate()));
-        plan.setFirstRun(true);
-        plan.setTotalRuns(req.getPaymentMonths());
-
-        if (req.getManualFirstInterest() == null) {
-            BigDecimal proRata = InterestUtils.calculateProRataInterest(
-                    req.getInitialValue(), req.getInterestRate(),
-                    req.getContractDate(), req.getFirstPaymentDate());
-            plan.setInterestAmount(proRata.doubleValue());
-        }
-        return plan;
+    /**
+     * Berechnet den Plan inkl. Prüfung der Sondertilgungen; ein in der Session abgelegter
+     * Plan dient als Ausgangspunkt, sodass nur ab dem ersten geänderten Monat neu gerechnet wird.
+     */
+    private AmortizationSchedule calculateChecked(PaymentPlanRequest req, HttpSession session) {
+        AmortizationSchedule previous = (AmortizationSchedule) session.getAttribute(SCHEDULE);
+        return paymentPlanService.calculateChecked(req, previous);
     }
 
-    private PaymentPlanResponse mapToResponse(PaymentPlanElement e, double extraPayment) {
-        Locale loc = Locale.getDefault();
-        DateTimeFormatter fmt = DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM).withLocale(loc);
-
-        PaymentPlanResponse r = new PaymentPlanResponse();
-        r.setInitialValue(String.format("%.2f", e.getInitialValue()));
-        r.setInterestAmount(String.format("%.2f", e.getInterestAmount()));
-
-        double change = Math.abs(Math.abs(e.getAmountChangeValue()) < 0.005 ? 0 : e.getAmountChangeValue());
-        r.setAmountChangeValue(String.format("%.2f", change));
-
-        double future = Math.abs(Math.abs(e.getFutureValue()) < 0.005 ? 0 : e.getFutureValue());
-        r.setFutureValue(String.format("%.2f", future));
-
-        r.setRegularPaymentAmount(String.format("%.2f", e.getRegularPaymentAmount()));
-        r.setRunNumber(String.valueOf(e.getRunNumber()));
-        r.setTotalRuns(String.valueOf(e.getTotalRuns()));
-        r.setTimeInDays(String.valueOf(e.getTimeInDays()));
-        r.setRepaymentDate(e.getRepaymentDate().format(fmt));
-        r.setIsGroup(String.valueOf(e.isLastDayOfYear()));
-        r.setIsLastRun(String.valueOf(e.isLastRun()));
-        r.setYear(e.getRepaymentDate().getYear());
-        r.setExtraPayment(String.format("%.2f", extraPayment));
-        return r;
+    private void validateRequest(PaymentPlanRequest request) {
+        paymentPlanService.validateRequest(request);
     }
 
     private Map<Integer, List<PaymentPlanResponse>> groupByYear(List<PaymentPlanResponse> list) {
@@ -499,45 +420,4 @@ public class InterestController {
                         LinkedHashMap::new, Collectors.toList()));
     }
 
-    private void validateRequest(PaymentPlanRequest request) {
-        if (request.getInterestRate() < 0 || request.getInterestRate() > 100) {
-            throw new IllegalArgumentException(
-                    messageSource.getMessage("validation.interestRate.range", null, Locale.getDefault()));
-        }
-        if (request.getContractDate() == null || request.getFirstPaymentDate() == null) {
-            throw new IllegalArgumentException(
-                    messageSource.getMessage("validation.dates.required", null, Locale.getDefault()));
-        }
-    }
-
-    private void validateExtraPayments(PaymentPlanRequest req) {
-        if (req.getMode() != CalculationMode.LOAN || req.getExtraPayments().isEmpty()) return;
-
-        double totalExtra = req.getExtraPayments().values().stream()
-                .filter(Objects::nonNull).mapToDouble(Double::doubleValue).sum();
-        if (totalExtra == 0) return;
-
-        Map<Integer, Double> backup = new HashMap<>(req.getExtraPayments());
-        req.setExtraPayments(Collections.emptyMap());
-        List<PaymentPlanResponse> base = doCalculation(req);
-        req.setExtraPayments(backup);
-
-        Map<Integer, Double> debtByRun = base.stream()
-                .collect(Collectors.toMap(r -> Integer.parseInt(r.getRunNumber()),
-                        r -> Double.parseDouble(r.getFutureValue().replace(",", "."))));
-
-        for (var e : backup.entrySet()) {
-            double extra = e.getValue() == null ? 0 : e.getValue();
-            if (extra > debtByRun.getOrDefault(e.getKey(), Double.MAX_VALUE)) {
-                throw new IllegalArgumentException(messageSource.getMessage(
-                        "validation.extraPayments.tooHigh",
-                        new Object[]{
-                                String.format("%.2f", totalExtra),
-                                String.format("%.2f", debtByRun.getOrDefault(e.getKey(), 0.0))
-                        },
-                        Locale.getDefault()));
-            }
-        }
-    }
-
-}
+}
\ No newline at end of file
@@ -1,13 +1,20 @@
 package de.zeus.interest.api;
 
-import de.zeus.interest.service.PaymentPlanStorageService;
+import de.zeus.interest.service.PlanStore;
+import de.zeus.interest.service.RetentionSweeper;
 import de.zeus.interest.dto.PaymentPlanResponse;
+import de.zeus.interest.dto.PlanQuery;
+import de.zeus.interest.dto.RetentionReport;
+import de.zeus.interest.dto.WriteQueueStatistics;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.io.IOException;
+import java.nio.file.NoSuchFileException;
 import java.util.List;
 
 @RestController
@@ -15,11 +22,34 @@ import java.util.List;
 @RequiredArgsConstructor
 public class PaymentPlanApiController {
 
-    private final PaymentPlanStorageService storageService;
+    private final PlanStore storageService;
+    private final RetentionSweeper retentionSweeper;
 
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+
+    /**
+     * Seitenweise Liste der Plan-IDs, neueste zuerst. Die nächste Seite liefert {@code cursor=<nextCursor>}.
+     * <p>
+     * Mit Suchkriterien (z. B. {@code ?mode=LOAN&minPrincipal=10000&sort=payoff}) werden stattdessen die
+     * Metadaten der passenden Pläne geliefert; die nächste Seite liefert {@code offset=<nextOffset>}.
+     */
     @GetMapping
-    public ResponseEntity<List<String>> listAllPlans() {
-        return ResponseEntity.ok(storageService.listAll());
+    public ResponseEntity<?> listPlans(@RequestParam(required = false) String cursor,
+                                       @RequestParam(defaultValue = "0") int offset,
+                                       @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+                                       PlanQuery query) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        if (!query.hasCriteria()) {
+            return ResponseEntity.ok(storageService.list(cursor, pageSize));
+        }
+        try {
+            return ResponseEntity.ok(storageService.query(query, Math.max(0, offset), pageSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (UnsupportedOperationException e) {
+            return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).build();
+        }
     }
 
     @GetMapping("/{fileId}")
@@ -32,25 +62,95 @@ public class PaymentPlanApiController {
         }
     }
 
+    /**
+     * Liefert den gespeicherten Plan als JSON; JSON-Dateien direkt aus dem Dateisystem (gestreamt, Range-fähig).
+     * Ist die Datei GZIP-komprimiert und akzeptiert der Client gzip, werden die gespeicherten Bytes unverändert
+     * mit {@code Content-Encoding: gzip} gesendet.
+     * ETag und Last-Modified erlauben bedingte Abrufe; bei passendem If-None-Match antwortet Spring mit 304.
+     * Länge, Inhalt und Validatoren stammen aus derselben geöffneten Datei, die erst nach der Antwort
+     * geschlossen wird – auch wenn der Plan währenddessen neu geschrieben wird.
+     */
     @GetMapping("/{fileId}/raw")
-    public ResponseEntity<ByteArrayResource> downloadRaw(@PathVariable String fileId) {
+    public ResponseEntity<Resource> downloadRaw(@PathVariable String fileId,
+                                                @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                                String acceptEncoding) {
         try {
-            byte[] raw = storageService.loadRaw(fileId);
-            ByteArrayResource res = new ByteArrayResource(raw);
+            PlanStore.Download download = acceptsGzip(acceptEncoding) ? storageService.gzipJsonDownload(fileId) : null;
+            boolean gzip = download != null;
+            if (!gzip) {
+                download = storageService.jsonDownload(fileId);
+            }
+            closeAfterRequest(download);
 
-            return ResponseEntity.ok()
+            // null, solange der Plan noch in der Write-Behind-Warteschlange liegt (dann ohne Validatoren)
+            PlanStore.Version version = download.version();
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
                     .contentType(MediaType.APPLICATION_JSON)
                     .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"plan-" + fileId + ".json\"")
-                    .contentLength(raw.length)
-                    .body(res);
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING);
+            if (version != null) {
+                response.lastModified(version.lastModified())
+                        .eTag(eTag(version, gzip ? "-gz" : ""));
+            }
+            if (gzip) {
+                response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            return response.body(download.body());
+        } catch (NoSuchFileException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         } catch (IOException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    /** Tiefe und Schreiblatenz der Write-Behind-Warteschlange. */
+    @GetMapping("/write-queue")
+    public ResponseEntity<WriteQueueStatistics> writeQueueStatistics() {
+        return ResponseEntity.ok(storageService.getWriteQueueStatistics());
+    }
+
+    /** Bericht des letzten Aufräumlaufs ({@code 204}, solange keiner stattgefunden hat). */
+    @GetMapping("/retention")
+    public ResponseEntity<RetentionReport> retentionReport() {
+        RetentionReport report = retentionSweeper.getLastReport();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.noContent().build();
+    }
+
     @DeleteMapping("/{fileId}")
     public ResponseEntity<Void> deletePlan(@PathVariable String fileId) {
         boolean deleted = storageService.delete(fileId);
         return deleted ? ResponseEntity.ok().build() : ResponseEntity.notFound().build();
     }
+
+    /** Gibt die geöffnete Datei frei, sobald die Anfrage abgeschlossen (die Antwort gesendet) ist. */
+    private static void closeAfterRequest(PlanStore.Download download) {
+        RequestContextHolder.currentRequestAttributes().registerDestructionCallback("planDownload", () -> {
+            try {
+                download.close();
+            } catch (IOException e) {
+                // nur noch lesend geöffnet, nichts mehr zu sichern
+            }
+        }, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    /**
+     * Starker ETag aus dem Stand des Plans; jede Neuschreibung ändert ihn.
+     * Die komprimierte Darstellung erhält einen eigenen ETag ({@code suffix}).
+     */
+    private static String eTag(PlanStore.Version version, String suffix) {
+        return "\"" + version.tag() + suffix + "\"";
+    }
+
+    /** Enthält Accept-Encoding gzip (ohne q=0)? */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            if (tokens[0].trim().equalsIgnoreCase("gzip")) {
+                return tokens.length < 2 || !tokens[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,39 @@
+/*
+ * Zeus Interest Calculator – BalanceResult
+ * ----------------------------------------
+ * Stand eines Zahlungsplans nach einem bestimmten Monat.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO für die Restschuld- bzw. Guthabenabfrage der JSON-Schnittstelle (z. B. zum Ende der Zinsbindung).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceResult {
+
+    /** Monatsnummer (1-basiert) */
+    private int month;
+
+    /** Restschuld beim Kredit, Guthaben bei der Einlage, jeweils nach der Zahlung dieses Monats */
+    private BigDecimal balance;
+
+    /** Kredit bis einschließlich dieses Monats vollständig getilgt */
+    private boolean paidOff;
+
+    /** true = aus dem simulierten Plan (centgenau), false = geschlossene Formel (ohne Rundung je Monat) */
+    private boolean simulated;
+}
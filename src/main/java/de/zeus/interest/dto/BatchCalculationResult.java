@@ -0,0 +1,37 @@
+/*
+ * Zeus Interest Calculator – BatchCalculationResult
+ * -------------------------------------------------
+ * Ergebnis eines einzelnen Eintrags einer Batch-Berechnung.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO für einen Eintrag der Batch-Antwort. Entweder ist {@code results} oder {@code error} gesetzt,
+ * ein fehlerhafter Eintrag lässt den Rest des Batches unberührt.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchCalculationResult {
+
+    /** Position der Anfrage im Eingabe-Array (0-basiert) */
+    private int index;
+
+    /** Berechneter Zahlungsplan (null bei Fehler) */
+    private List<PaymentPlanResponse> results;
+
+    /** Fehlermeldung (null bei Erfolg) */
+    private String error;
+}
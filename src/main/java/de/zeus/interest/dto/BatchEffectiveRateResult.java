@@ -0,0 +1,40 @@
+/*
+ * Zeus Interest Calculator – BatchEffectiveRateResult
+ * ---------------------------------------------------
+ * Ergebnis einer Einzelanfrage in der Batch-Berechnung des effektiven Jahreszinses.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO für einen Eintrag der Batch-Antwort mit effektivem Jahreszins (z. B. für Angebotslisten).
+ * Bei Fehler ist nur {@code error} gesetzt.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchEffectiveRateResult {
+
+    /** Position der Anfrage im Eingabe-Array (0-basiert) */
+    private int index;
+
+    /** Angefragter Sollzins in Prozent (null bei Fehler) */
+    private Double nominalRate;
+
+    /** Effektiver Jahreszins in Prozent nach PAngV (null bei Fehler oder wenn nicht bestimmbar) */
+    private BigDecimal effectiveRate;
+
+    /** Fehlermeldung (null bei Erfolg) */
+    private String error;
+}
@@ -0,0 +1,34 @@
+/*
+ * Zeus Interest Calculator – BatchSummaryResult
+ * ---------------------------------------------
+ * Ergebnis einer einzelnen Summenberechnung innerhalb eines Batches.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO für einen Eintrag der Batch-Antwort im Summenmodus. Entweder ist {@code summary} oder {@code error} gesetzt.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchSummaryResult {
+
+    /** Position der Anfrage im Eingabe-Array (0-basiert) */
+    private int index;
+
+    /** Kennzahlen des Plans (null bei Fehler) */
+    private PlanSummary summary;
+
+    /** Fehlermeldung (null bei Erfolg) */
+    private String error;
+}
@@ -0,0 +1,40 @@
+/*
+ * Zeus Interest Calculator – CacheStatistics
+ * ------------------------------------------
+ * Kennzahlen des Ergebnis-Caches.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Momentaufnahme der Cache-Zähler seit Programmstart.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatistics {
+
+    /** Anfragen, die aus dem Cache beantwortet wurden */
+    private long hits;
+
+    /** Anfragen, die neu berechnet werden mussten */
+    private long misses;
+
+    /** Wegen der Größenbeschränkung verdrängte Einträge */
+    private long evictions;
+
+    /** Aktuelle Anzahl Einträge */
+    private int size;
+
+    /** Maximale Anzahl Einträge (0 = Cache deaktiviert) */
+    private int maxSize;
+}
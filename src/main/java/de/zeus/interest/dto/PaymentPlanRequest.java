@@ -11,8 +11,10 @@
 
 package de.zeus.interest.dto;
 
+import de.zeus.interest.model.ArithmeticMode;
 import de.zeus.interest.model.CalculationMode;
 import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
 
 import java.time.LocalDate;
 import java.util.HashMap;
@@ -41,17 +43,42 @@ public class PaymentPlanRequest {
     private Integer paymentMonths;
 
     /** Vertragsdatum (Start der Zinsberechnung), Standard = heute */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
     private LocalDate contractDate = LocalDate.now();
 
     /** Datum der ersten Abbuchung / Einzahlung, Standard = heute */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
     private LocalDate firstPaymentDate = LocalDate.now();
 
     /** Berechnungsmodus: Kredit (LOAN) oder Einlage (DEPOSIT), Standard = Kredit */
     private CalculationMode mode = CalculationMode.LOAN;
 
+    /** Rechenarithmetik: Gleitkomma (DOUBLE) oder Cent-Festkomma (CENTS), Standard = Gleitkomma */
+    private ArithmeticMode arithmetic = ArithmeticMode.DOUBLE;
+
     /**
      * Sonderzahlungen – Mapping: Periode (Monatsnummer) → Zusätzlicher Betrag.
      * Beispiel: {1 → 100.0, 3 → 50.0}
      */
     private Map<Integer, Double> extraPayments = new HashMap<>();
+
+    /**
+     * Erstellt eine unabhängige Kopie (inkl. eigener Sonderzahlungs-Map).
+     *
+     * @return Kopie dieser Anfrage
+     */
+    public PaymentPlanRequest copy() {
+        PaymentPlanRequest copy = new PaymentPlanRequest();
+        copy.setManualFirstInterest(manualFirstInterest);
+        copy.setInitialValue(initialValue);
+        copy.setInterestRate(interestRate);
+        copy.setPaymentAmount(paymentAmount);
+        copy.setPaymentMonths(paymentMonths);
+        copy.setContractDate(contractDate);
+        copy.setFirstPaymentDate(firstPaymentDate);
+        copy.setMode(mode);
+        copy.setArithmetic(arithmetic);
+        copy.setExtraPayments(extraPayments == null ? new HashMap<>() : new HashMap<>(extraPayments));
+        return copy;
+    }
 }
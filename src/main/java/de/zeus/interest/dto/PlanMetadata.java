@@ -0,0 +1,55 @@
+/*
+ * Zeus Interest Calculator – PlanMetadata
+ * ---------------------------------------
+ * Kennzahlen eines gespeicherten Zahlungsplans.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.dto;
+
+import de.zeus.interest.model.CalculationMode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Zusammenfassung eines gespeicherten Plans, die beim Speichern als Metadaten-Datei neben dem Plan abgelegt wird.
+ * Suchabfragen über gespeicherte Pläne werden allein aus diesen Daten beantwortet.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlanMetadata {
+
+    /** Datei-ID des Plans */
+    private String fileId;
+
+    /** Berechnungsmodus (Kredit oder Einlage) */
+    private CalculationMode mode;
+
+    /** Kapitalbetrag zum Start */
+    private BigDecimal principal;
+
+    /** Zinssatz pro Jahr in Prozent (null, wenn die Eingabe nicht bekannt ist) */
+    private Double interestRate;
+
+    /** Anzahl der berechneten Perioden (Monate) */
+    private int termMonths;
+
+    /** Summe der Zinsen über alle Perioden */
+    private BigDecimal totalInterest;
+
+    /** Datum der letzten Periode (null bei leerem Plan) */
+    private LocalDate payoffDate;
+
+    /** Zeitpunkt der ersten Speicherung */
+    private Instant createdAt;
+}
@@ -0,0 +1,34 @@
+/*
+ * Zeus Interest Calculator – PlanPage
+ * -----------------------------------
+ * Eine Seite der Liste gespeicherter Zahlungspläne.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO für die seitenweise Auflistung gespeicherter Pläne (neueste zuerst).
+ * Die nächste Seite wird mit {@code nextCursor} als Parameter {@code cursor} abgefragt.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlanPage {
+
+    /** Plan-IDs dieser Seite */
+    private List<String> items;
+
+    /** Cursor für die nächste Seite (null, wenn dies die letzte Seite ist) */
+    private String nextCursor;
+}
@@ -0,0 +1,66 @@
+/*
+ * Zeus Interest Calculator – PlanQuery
+ * ------------------------------------
+ * Suchkriterien für gespeicherte Zahlungspläne.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.dto;
+
+import de.zeus.interest.model.CalculationMode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Filter und Sortierung für die Suche über {@link PlanMetadata}; nicht gesetzte Kriterien schränken nicht ein.
+ * Wird aus den Query-Parametern von {@code GET /api/plans} befüllt.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlanQuery {
+
+    /** Nur Pläne dieses Modus */
+    private CalculationMode mode;
+
+    /** Mindestbetrag des Kapitals (einschließlich) */
+    private BigDecimal minPrincipal;
+
+    /** Höchstbetrag des Kapitals (einschließlich) */
+    private BigDecimal maxPrincipal;
+
+    /** Mindestzinssatz in Prozent (einschließlich) */
+    private Double minRate;
+
+    /** Höchstzinssatz in Prozent (einschließlich) */
+    private Double maxRate;
+
+    /** Frühestes Enddatum (einschließlich) */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate payoffFrom;
+
+    /** Spätestes Enddatum (einschließlich) */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate payoffTo;
+
+    /**
+     * Sortierung: {@code created} (neueste zuerst, Standard), {@code payoff}, {@code principal}
+     * oder {@code interest} (jeweils aufsteigend)
+     */
+    private String sort;
+
+    /** Ist mindestens ein Filter oder eine Sortierung gesetzt? */
+    public boolean hasCriteria() {
+        return mode != null || minPrincipal != null || maxPrincipal != null || minRate != null || maxRate != null
+                || payoffFrom != null || payoffTo != null || (sort != null && !sort.isEmpty());
+    }
+}
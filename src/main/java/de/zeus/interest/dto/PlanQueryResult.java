@@ -0,0 +1,34 @@
+/*
+ * Zeus Interest Calculator – PlanQueryResult
+ * ------------------------------------------
+ * Ergebnisseite einer Suche über gespeicherte Zahlungspläne.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO für eine Seite von Suchtreffern. Die nächste Seite wird mit {@code nextOffset} als Parameter
+ * {@code offset} (und denselben Kriterien) abgefragt.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlanQueryResult {
+
+    /** Treffer dieser Seite in Sortierreihenfolge */
+    private List<PlanMetadata> items;
+
+    /** Offset der nächsten Seite (null, wenn dies die letzte Seite ist) */
+    private Integer nextOffset;
+}
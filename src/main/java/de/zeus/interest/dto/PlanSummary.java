@@ -0,0 +1,52 @@
+/*
+ * Zeus Interest Calculator – PlanSummary
+ * --------------------------------------
+ * Kennzahlen eines Zahlungsplans ohne Einzelzeilen.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.dto;
+
+import de.zeus.interest.model.ArithmeticMode;
+import de.zeus.interest.model.CalculationMode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * DTO für die Summenberechnung der JSON-Schnittstelle (z. B. Angebots-Widgets, Vergleiche vieler Varianten).
+ * Die Werte entsprechen den Summen über die Zeilen des vollständigen Plans.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlanSummary {
+
+    /** Berechnungsmodus (Kredit oder Einlage) */
+    private CalculationMode mode;
+
+    /** Verwendete Rechenarithmetik */
+    private ArithmeticMode arithmetic;
+
+    /** Tatsächlich berechnete Perioden (kleiner als die Laufzeit bei vorzeitiger Tilgung) */
+    private int periods;
+
+    /** Summe der Zinsen */
+    private BigDecimal totalInterest;
+
+    /** Summe aller Zahlungen (regelmäßige Raten bzw. Einzahlungen und Sonderzahlungen) */
+    private BigDecimal totalPaid;
+
+    /** Datum der letzten Periode (null, wenn keine berechnet wurde) */
+    private LocalDate payoffDate;
+
+    /** Stand nach der letzten Periode: Restschuld beim Kredit, Guthaben bei der Einlage */
+    private BigDecimal residualDebt;
+}
@@ -0,0 +1,48 @@
+/*
+ * Zeus Interest Calculator – RetentionReport
+ * ------------------------------------------
+ * Ergebnis eines Aufräumlaufs im Plan-Speicher.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Was ein Lauf der Aufbewahrungsregeln entfernt hat und wie lange er gedauert hat.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RetentionReport {
+
+    /** Beginn des Laufs */
+    private Instant startedAt;
+
+    /** Dauer des Laufs in Millisekunden (einschließlich Pausen zwischen den Stapeln) */
+    private long durationMillis;
+
+    /** Wegen Überschreitung des Höchstalters gelöschte Pläne */
+    private int expiredByAge;
+
+    /** Wegen Überschreitung der Höchstanzahl gelöschte Pläne */
+    private int expiredByCount;
+
+    /** Wegen Überschreitung der Gesamtgröße gelöschte Pläne */
+    private int expiredBySize;
+
+    /** Entfernte Metadaten-Dateien ohne zugehörigen Plan */
+    private int orphanedMetadataRemoved;
+
+    /** Anzahl der Pläne nach dem Lauf */
+    private int remaining;
+}
@@ -0,0 +1,45 @@
+/*
+ * Zeus Interest Calculator – ScheduleResponse
+ * -------------------------------------------
+ * Numerische Antwort der zustandslosen Berechnungs-API (v2).
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.dto;
+
+import de.zeus.interest.model.ArithmeticMode;
+import de.zeus.interest.model.CalculationMode;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO für einen vollständigen Zahlungsplan der JSON-Schnittstelle.
+ * Formatierung (Tausendertrennung, Währung, Datumsformat) ist Sache des Clients.
+ */
+@Data
+public class ScheduleResponse {
+
+    /** Berechnungsmodus (Kredit oder Einlage) */
+    private CalculationMode mode;
+
+    /** Verwendete Rechenarithmetik */
+    private ArithmeticMode arithmetic;
+
+    /** Angefragte Laufzeit in Monaten */
+    private int totalRuns;
+
+    /** Tatsächlich berechnete Perioden (kleiner bei vorzeitiger Tilgung) */
+    private int periods;
+
+    /** Effektiver Jahreszins in Prozent nach PAngV (zwei Nachkommastellen), null wenn nicht bestimmbar */
+    private BigDecimal effectiveRate;
+
+    /** Zeilen in Monatsreihenfolge */
+    private List<ScheduleRow> rows;
+}
@@ -0,0 +1,59 @@
+/*
+ * Zeus Interest Calculator – ScheduleRow
+ * --------------------------------------
+ * Numerische Zeile eines Zahlungsplans für die JSON-Schnittstelle (v2).
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * DTO für einen Monat im Zahlungsplan – typisiert statt vorformatiert.
+ * Beträge sind {@link BigDecimal} mit 2 Nachkommastellen (exakt aus Cent), Daten im ISO-Format.
+ * Im Gegensatz zu {@link PaymentPlanResponse} behalten Veränderung und neuer Stand ihr Vorzeichen.
+ */
+@Data
+public class ScheduleRow {
+
+    /** Laufnummer der Periode (1-basiert) */
+    private int runNumber;
+
+    /** Datum der Zahlung / Abbuchung */
+    private LocalDate repaymentDate;
+
+    /** Anzahl Tage in dieser Periode */
+    private int timeInDays;
+
+    /** Kapital zu Beginn der Periode */
+    private BigDecimal initialValue;
+
+    /** Zinsen in dieser Periode */
+    private BigDecimal interestAmount;
+
+    /** Regelmäßige Zahlung (Rate oder Einzahlung) */
+    private BigDecimal regularPaymentAmount;
+
+    /** Veränderung (Tilgung oder Zuwachs), inkl. Sonderzahlung */
+    private BigDecimal amountChangeValue;
+
+    /** Sonderzahlung in dieser Periode */
+    private BigDecimal extraPayment;
+
+    /** Kapital am Ende der Periode */
+    private BigDecimal futureValue;
+
+    /** Kennzeichen, ob die Zahlung auf den 31.12. fällt */
+    private boolean lastDayOfYear;
+
+    /** Kennzeichen, ob dies die letzte Periode ist */
+    private boolean lastRun;
+}
@@ -0,0 +1,47 @@
+/*
+ * Zeus Interest Calculator – SolverResult
+ * ---------------------------------------
+ * Ergebnis des Annuitäten-Lösers.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.dto;
+
+import de.zeus.interest.model.SolveTarget;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO für die Antwort des Lösers: gesuchter Wert, vervollständigte Anfrage und die Kennzahlen des damit
+ * tatsächlich berechneten Plans.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SolverResult {
+
+    /** Gesuchte Größe */
+    private SolveTarget target;
+
+    /** Ermittelter Wert (Rate/Kapital in €, Zinssatz in %, Laufzeit in Monaten) */
+    private BigDecimal value;
+
+    /** Anfrage mit eingesetztem Wert, direkt für {@code /api/calculations} verwendbar */
+    private PaymentPlanRequest request;
+
+    /** Kennzahlen des mit {@code request} berechneten Plans */
+    private PlanSummary summary;
+
+    /** Auswertungen der geschlossenen Formel (Newton-/Bisektionsschritte) */
+    private int iterations;
+
+    /** Simulationen des Plans zur Prüfung (1, mehr nur bei Rundungskorrekturen) */
+    private int simulations;
+}
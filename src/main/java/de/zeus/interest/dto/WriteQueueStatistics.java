@@ -0,0 +1,52 @@
+/*
+ * Zeus Interest Calculator – WriteQueueStatistics
+ * -----------------------------------------------
+ * Kennzahlen der asynchronen Schreibwarteschlange.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Momentaufnahme der Write-Behind-Warteschlange seit Programmstart.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WriteQueueStatistics {
+
+    /** Write-Behind aktiv? (sonst wird synchron geschrieben und alle Werte sind 0) */
+    private boolean enabled;
+
+    /** Einträge in der Warteschlange */
+    private int depth;
+
+    /** Maximale Länge der Warteschlange */
+    private int capacity;
+
+    /** Pläne, die noch nicht auf der Platte liegen */
+    private int pending;
+
+    /** Geschriebene Dateien */
+    private long written;
+
+    /** Geschriebene Stapel (ein fsync-Durchgang je Stapel) */
+    private long batches;
+
+    /** Fehlgeschlagene Stapel (deren Pläne bleiben wartend und werden erneut geschrieben) */
+    private long failures;
+
+    /** Zeit vom Einreihen bis zur dauerhaften Ablage, letzter Stapel (ms) */
+    private long lastFlushLatencyMillis;
+
+    /** Höchste bisher gemessene Zeit vom Einreihen bis zur dauerhaften Ablage (ms) */
+    private long maxFlushLatencyMillis;
+}
@@ -0,0 +1,240 @@
+/*
+ * Zeus Interest Calculator – AmortizationSchedule
+ * -----------------------------------------------
+ * Spaltenorientiertes Ergebnis einer Zahlungsplan-Berechnung.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.model;
+
+import de.zeus.interest.dto.PaymentPlanRequest;
+
+import java.time.LocalDate;
+
+/**
+ * Ergebnis der {@code AmortizationEngine}: eine Zeile je Monat, abgelegt in primitiven Arrays (eine Spalte je Feld).
+ * Beträge werden als Cent-Werte ({@code long}) gespeichert, Daten als Epochentag.
+ * Die Kapazität entspricht der angefragten Laufzeit; bei vorzeitiger Tilgung ist {@link #size()} kleiner.
+ * <p>
+ * Zusätzlich hält der Plan Checkpoints (exakter Kapitalstand in festen Monatsabständen), damit eine
+ * geänderte Sonderzahlung ab dem nächstgelegenen Checkpoint neu berechnet werden kann.
+ */
+public class AmortizationSchedule implements PeriodSink {
+
+    private final CalculationMode mode;
+    private final int totalRuns;
+    private ArithmeticMode arithmetic = ArithmeticMode.DOUBLE;
+    private PaymentPlanRequest request;
+    private int size;
+
+    private int checkpointInterval;
+    private int checkpointCount;
+    private double[] checkpoints = new double[0];
+
+    /** Erster Monat, dessen Sondertilgung die Restschuld übersteigt (0 = keiner bzw. nicht geprüft) */
+    private int extraViolationRun;
+    private long extraViolationDebt;
+
+    private final long[] initialValue;
+    private final long[] futureValue;
+    private final long[] interestAmount;
+    private final long[] regularPaymentAmount;
+    private final long[] amountChangeValue;
+    private final long[] extraPayment;
+    private final int[] timeInDays;
+    private final int[] repaymentDate;
+    private final boolean[] lastRun;
+
+    /**
+     * @param mode      Berechnungsmodus (Kredit oder Einlage)
+     * @param totalRuns angefragte Laufzeit in Monaten (= Kapazität der Spalten)
+     */
+    public AmortizationSchedule(CalculationMode mode, int totalRuns) {
+        this.mode = mode;
+        this.totalRuns = totalRuns;
+        this.initialValue = new long[totalRuns];
+        this.futureValue = new long[totalRuns];
+        this.interestAmount = new long[totalRuns];
+        this.regularPaymentAmount = new long[totalRuns];
+        this.amountChangeValue = new long[totalRuns];
+        this.extraPayment = new long[totalRuns];
+        this.timeInDays = new int[totalRuns];
+        this.repaymentDate = new int[totalRuns];
+        this.lastRun = new boolean[totalRuns];
+    }
+
+    /**
+     * Hängt eine berechnete Periode an. Alle Beträge in Cent.
+     *
+     * @return Index der geschriebenen Zeile
+     */
+    public int add(long initialCents, long futureCents, long interestCents, long paymentCents,
+                   long changeCents, long extraCents, int days, int repaymentEpochDay, boolean last) {
+        int row = size++;
+        initialValue[row] = initialCents;
+        futureValue[row] = futureCents;
+        interestAmount[row] = interestCents;
+        regularPaymentAmount[row] = paymentCents;
+        amountChangeValue[row] = changeCents;
+        extraPayment[row] = extraCents;
+        timeInDays[row] = days;
+        repaymentDate[row] = repaymentEpochDay;
+        lastRun[row] = last;
+        return row;
+    }
+
+    @Override
+    public void period(long initialCents, long futureCents, long interestCents, long paymentCents,
+                       long changeCents, long extraCents, int days, int repaymentEpochDay, boolean last) {
+        add(initialCents, futureCents, interestCents, paymentCents, changeCents, extraCents, days, repaymentEpochDay,
+                last);
+    }
+
+    @Override
+    public void checkpoint(double balance) {
+        addCheckpoint(balance);
+    }
+
+    @Override
+    public void extraViolation(int run, long debtCents) {
+        setExtraViolation(run, debtCents);
+    }
+
+    /** Verwirft alle Zeilen, damit das Objekt für eine neue Berechnung gleicher Laufzeit wiederverwendet werden kann. */
+    public void clear() {
+        size = 0;
+        checkpointCount = 0;
+        extraViolationRun = 0;
+        extraViolationDebt = 0;
+    }
+
+    /**
+     * Übernimmt die ersten {@code rows} Zeilen und die zugehörigen Checkpoints aus einem anderen Plan.
+     *
+     * @param source Plan gleicher Laufzeit
+     * @param rows   Anzahl zu übernehmender Zeilen
+     */
+    public void copyPrefix(AmortizationSchedule source, int rows) {
+        System.arraycopy(source.initialValue, 0, initialValue, 0, rows);
+        System.arraycopy(source.futureValue, 0, futureValue, 0, rows);
+        System.arraycopy(source.interestAmount, 0, interestAmount, 0, rows);
+        System.arraycopy(source.regularPaymentAmount, 0, regularPaymentAmount, 0, rows);
+        System.arraycopy(source.amountChangeValue, 0, amountChangeValue, 0, rows);
+        System.arraycopy(source.extraPayment, 0, extraPayment, 0, rows);
+        System.arraycopy(source.timeInDays, 0, timeInDays, 0, rows);
+        System.arraycopy(source.repaymentDate, 0, repaymentDate, 0, rows);
+        System.arraycopy(source.lastRun, 0, lastRun, 0, rows);
+        size = rows;
+
+        int count = Math.min(source.checkpointCount, rows / source.checkpointInterval);
+        checkpointInterval = source.checkpointInterval;
+        checkpoints = new double[source.checkpoints.length];
+        System.arraycopy(source.checkpoints, 0, checkpoints, 0, count);
+        checkpointCount = count;
+    }
+
+    /**
+     * Legt fest, in welchem Monatsabstand Checkpoints geschrieben werden.
+     *
+     * @param interval Abstand in Monaten (größer 0)
+     */
+    public void setCheckpointInterval(int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be at least 1 month");
+        }
+        if (interval != checkpointInterval || checkpoints.length == 0) {
+            checkpointInterval = interval;
+            checkpoints = new double[totalRuns / interval + 1];
+        }
+    }
+
+    /**
+     * Speichert den exakten Kapitalstand zu Beginn des Monats {@code (k + 1) * interval + 1}.
+     *
+     * @param balance Kapitalstand (ungerundet)
+     */
+    public void addCheckpoint(double balance) {
+        checkpoints[checkpointCount++] = balance;
+    }
+
+    public int getCheckpointInterval() { return checkpointInterval; }
+
+    /** Anzahl geschriebener Checkpoints */
+    public int getCheckpointCount() { return checkpointCount; }
+
+    /**
+     * @param index Checkpoint-Index (0-basiert)
+     * @return Kapitalstand zu Beginn des Monats {@code (index + 1) * interval + 1}
+     */
+    public double getCheckpoint(int index) { return checkpoints[index]; }
+
+    /**
+     * Vermerkt eine Sondertilgung, die die Restschuld übersteigt.
+     *
+     * @param run       Monatsnummer
+     * @param debtCents Restschuld vor der Sondertilgung in Cent
+     */
+    public void setExtraViolation(int run, long debtCents) {
+        this.extraViolationRun = run;
+        this.extraViolationDebt = debtCents;
+    }
+
+    /** Monat der ersten zu hohen Sondertilgung, 0 wenn keine vorliegt */
+    public int getExtraViolationRun() { return extraViolationRun; }
+
+    /** Restschuld (Cent) im Monat der zu hohen Sondertilgung */
+    public long getExtraViolationDebt() { return extraViolationDebt; }
+
+    public CalculationMode getMode() { return mode; }
+
+    public int getTotalRuns() { return totalRuns; }
+
+    /** Arithmetik, mit der die Zeilen berechnet wurden */
+    public ArithmeticMode getArithmetic() { return arithmetic; }
+
+    public void setArithmetic(ArithmeticMode arithmetic) { this.arithmetic = arithmetic; }
+
+    /** Kopie der Anfrage, aus der der Plan berechnet wurde */
+    public PaymentPlanRequest getRequest() { return request; }
+
+    public void setRequest(PaymentPlanRequest request) { this.request = request; }
+
+    /** Anzahl tatsächlich berechneter Perioden */
+    public int size() { return size; }
+
+    /** Laufnummer der Zeile (1-basiert) */
+    public int getRunNumber(int row) { return row + 1; }
+
+    public long getInitialValue(int row) { return initialValue[row]; }
+
+    public long getFutureValue(int row) { return futureValue[row]; }
+
+    public long getInterestAmount(int row) { return interestAmount[row]; }
+
+    public long getRegularPaymentAmount(int row) { return regularPaymentAmount[row]; }
+
+    public long getAmountChangeValue(int row) { return amountChangeValue[row]; }
+
+    public long getExtraPayment(int row) { return extraPayment[row]; }
+
+    public int getTimeInDays(int row) { return timeInDays[row]; }
+
+    /** Datum der Zahlung als Epochentag (siehe {@link LocalDate#toEpochDay()}) */
+    public int getRepaymentEpochDay(int row) { return repaymentDate[row]; }
+
+    public LocalDate getRepaymentDate(int row) { return LocalDate.ofEpochDay(repaymentDate[row]); }
+
+    public boolean isLastRun(int row) { return lastRun[row]; }
+
+    /**
+     * Gibt zurück, ob die Zahlung der Zeile auf den 31.12. fällt (Jahresabschluss).
+     */
+    public boolean isLastDayOfYear(int row) {
+        LocalDate date = getRepaymentDate(row);
+        return date.getMonthValue() == 12 && date.getDayOfMonth() == 31;
+    }
+}
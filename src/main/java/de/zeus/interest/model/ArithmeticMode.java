@@ -0,0 +1,23 @@
+/*
+ * Zeus Interest Calculator – ArithmeticMode
+ * -----------------------------------------
+ * Enum zur Auswahl der Rechenarithmetik (Gleitkomma oder Cent-Festkomma).
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.model;
+
+/**
+ * Arithmetik, mit der die Perioden eines Zahlungsplans gerechnet werden.
+ */
+public enum ArithmeticMode {
+    /** Gleitkomma (double), Veränderung je Periode auf 2 Nachkommastellen gerundet – bisheriges Verhalten */
+    DOUBLE,
+
+    /** Festkomma in ganzen Cent (long), Zinsen je Periode nach konfigurierter Rundungsregel */
+    CENTS
+}
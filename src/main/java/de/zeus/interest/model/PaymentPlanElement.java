@@ -11,10 +11,9 @@
 
 package de.zeus.interest.model;
 
+import de.zeus.interest.util.InterestUtils;
 import lombok.Data;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 
 /**
@@ -35,6 +34,13 @@ public class PaymentPlanElement {
     private double regularPaymentAmount;
     private double amountChangeValue;
 
+    /* Festkomma-Werte in Cent, nur im Modus ArithmeticMode.CENTS genutzt */
+    private long initialCents;
+    private long futureCents;
+    private long interestCents;
+    private long regularPaymentCents;
+    private long amountChangeCents;
+
     private LocalDate repaymentDate;
     private int runNumber = 1;
     private int totalRuns;
@@ -71,25 +77,17 @@ public class PaymentPlanElement {
     }
 
     /**
-     * Erstellt eine Kopie dieses Elements für den nächsten Monat.
-     * Dabei wird das Kapital fortgeschrieben, der Zinssatz übernommen und
-     * Standardwerte gesetzt (z. B. 30 Tage Laufzeit).
-     *
-     * @return Neues Planungsobjekt für nächste Periode
+     * Schreibt dieses Element in-place auf den nächsten Monat fort: Das Kapital am Monatsende wird zum
+     * Anfangskapital (auch in Cent), die Laufnummer steigt und ab dem zweiten Monat gelten 30 Tage.
+     * Zinssatz und Rate bleiben erhalten; das Zahlungsdatum führt der Aufrufer.
      */
-    public PaymentPlanElement copyNextRun() {
-        PaymentPlanElement copy = new PaymentPlanElement();
-        copy.setMode(this.mode);
-        copy.setInitialValue(this.futureValue);
-        copy.setInterestRate(this.interestRate);
-        copy.setRegularPaymentAmount(this.regularPaymentAmount);
-        copy.setRunNumber(this.runNumber + 1);
+    public void advanceToNextRun() {
+        this.initialValue = this.futureValue;
+        this.initialCents = this.futureCents;
+        this.runNumber++;
         // Ab dem zweiten Lauf immer 30 Tage
-        copy.setTimeInDays(30);
-        copy.setFirstRun(false);
-        copy.setTotalRuns(this.totalRuns);
-        copy.setRepaymentDate(this.repaymentDate.plusMonths(1));
-        return copy;
+        this.timeInDays = 30;
+        this.firstRun = false;
     }
 
     /**
@@ -100,9 +98,7 @@ public class PaymentPlanElement {
      * @param changeValue Veränderung des Kapitals in dieser Periode
      */
     public void setAmountChangeValue(double changeValue) {
-        double rounded = BigDecimal.valueOf(changeValue)
-                .setScale(2, RoundingMode.HALF_UP)
-                .doubleValue();
+        double rounded = InterestUtils.roundHalfUp2(changeValue);
         if (mode == CalculationMode.LOAN && rounded > initialValue) {
             this.amountChangeValue = initialValue;
         } else {
@@ -0,0 +1,41 @@
+/*
+ * Zeus Interest Calculator – PeriodSink
+ * -------------------------------------
+ * Empfänger der Perioden, die die Berechnung erzeugt.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.model;
+
+/**
+ * Nimmt die Monate einer Berechnung in Reihenfolge entgegen. {@link AmortizationSchedule} legt sie als Zeilen ab;
+ * andere Empfänger (z. B. Summen) verarbeiten sie, ohne Zeilen anzulegen.
+ */
+public interface PeriodSink {
+
+    /**
+     * Eine berechnete Periode. Alle Beträge in Cent.
+     */
+    void period(long initialCents, long futureCents, long interestCents, long paymentCents,
+                long changeCents, long extraCents, int days, int repaymentEpochDay, boolean last);
+
+    /**
+     * Exakter Kapitalstand nach jedem Checkpoint-Abstand; nur für die Fortsetzung von Berechnungen nötig.
+     *
+     * @param balance Kapitalstand (ungerundet)
+     */
+    default void checkpoint(double balance) {
+    }
+
+    /**
+     * Eine Sondertilgung übersteigt die Restschuld; danach folgen keine Perioden mehr.
+     *
+     * @param run       Monatsnummer
+     * @param debtCents Restschuld vor der Sondertilgung in Cent
+     */
+    void extraViolation(int run, long debtCents);
+}
@@ -0,0 +1,47 @@
+/*
+ * Zeus Interest Calculator – SolveTarget
+ * --------------------------------------
+ * Enum zur Auswahl der gesuchten Größe beim Lösen eines Annuitätenplans.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.model;
+
+/**
+ * Größe, die aus den drei übrigen (Kapital, Zinssatz, Laufzeit, Rate) bestimmt wird.
+ */
+public enum SolveTarget {
+    /** Monatliche Rate bzw. Einzahlung, auf ganze Cent */
+    PAYMENT(0.01, 2),
+
+    /** Anfangskapital, auf ganze Cent */
+    PRINCIPAL(0.01, 2),
+
+    /** Zinssatz pro Jahr in Prozent, auf 1/1.000.000 Prozent (Auflösung der Cent-Arithmetik) */
+    RATE(0.000001, 6),
+
+    /** Laufzeit in ganzen Monaten */
+    TERM(1, 0);
+
+    private final double unit;
+    private final int scale;
+
+    SolveTarget(double unit, int scale) {
+        this.unit = unit;
+        this.scale = scale;
+    }
+
+    /** Kleinste Schrittweite des Ergebnisses */
+    public double getUnit() {
+        return unit;
+    }
+
+    /** Nachkommastellen des Ergebnisses */
+    public int getScale() {
+        return scale;
+    }
+}
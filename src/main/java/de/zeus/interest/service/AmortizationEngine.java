@@ -0,0 +1,475 @@
+/*
+ * Zeus Interest Calculator – AmortizationEngine
+ * ---------------------------------------------
+ * Zentrale Berechnung eines vollständigen Zahlungsplans (Kredit oder Einlage).
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+import de.zeus.interest.dto.PaymentPlanRequest;
+import de.zeus.interest.model.AmortizationSchedule;
+import de.zeus.interest.model.ArithmeticMode;
+import de.zeus.interest.model.CalculationMode;
+import de.zeus.interest.model.PaymentPlanElement;
+import de.zeus.interest.model.PeriodSink;
+import de.zeus.interest.util.InterestUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Rechenkern für Zahlungspläne. Wird von Web-Oberfläche, REST-Schnittstelle und Batch-Verarbeitung gemeinsam genutzt.
+ * <p>
+ * Pro Berechnung wird genau ein {@link PaymentPlanElement} angelegt und Monat für Monat in-place fortgeschrieben;
+ * die Ergebnisse landen spaltenweise im {@link AmortizationSchedule} oder in einem beliebigen {@link PeriodSink}
+ * (z. B. nur Summen). Innerhalb der Monatsschleife findet keine Objekt-Allokation statt (keine Kopie je Monat,
+ * kein {@code LocalDate.plusMonths}).
+ * Optional ({@link ArithmeticMode#CENTS}) wird durchgängig in ganzen Cent gerechnet.
+ */
+@Service
+@RequiredArgsConstructor
+public class AmortizationEngine {
+
+    /**
+     * Stand der Rechenregeln; wird mit im Eingabeformat gespeichert ({@link RequestPlanCodec}) und ist
+     * zu erhöhen, sobald sich Ergebnisse für dieselbe Anfrage ändern.
+     */
+    public static final int VERSION = 1;
+
+    private final LoanCalculationService loanService;
+    private final DepositCalculationService depositService;
+
+    /** Rundungsregel für Zinsen im Modus {@link ArithmeticMode#CENTS} */
+    @Value("${paymentplan.cents.rounding:HALF_UP}")
+    private RoundingMode centsRounding = RoundingMode.HALF_UP;
+
+    /** Abstand der Checkpoints in Monaten */
+    private int checkpointInterval = 12;
+
+    /**
+     * Setzt den Abstand der Checkpoints; ungültige Werte werden schon beim Start abgelehnt.
+     *
+     * @param checkpointInterval Abstand in Monaten (größer 0)
+     */
+    @Value("${paymentplan.checkpoint.interval:12}")
+    public void setCheckpointInterval(int checkpointInterval) {
+        if (checkpointInterval < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be at least 1 month");
+        }
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * Berechnet den vollständigen Zahlungsplan für die Anfrage.
+     *
+     * @param req Eingabedaten (validiert)
+     * @return Spaltenorientierter Zahlungsplan
+     */
+    public AmortizationSchedule calculate(PaymentPlanRequest req) {
+        return calculate(req, null, false);
+    }
+
+    /**
+     * Berechnet den Zahlungsplan und setzt dabei, wenn möglich, auf einem früheren Ergebnis auf:
+     * Unterscheidet sich die Anfrage nur in den Sonderzahlungen, werden alle Monate vor der ersten
+     * Änderung übernommen und die Berechnung ab dem nächstgelegenen Checkpoint fortgesetzt.
+     *
+     * @param req            Eingabedaten (validiert)
+     * @param previous       früherer Plan oder {@code null}
+     * @param validateExtras true = Sondertilgungen im selben Durchlauf gegen die Restschuld prüfen
+     *                       (Ergebnis siehe {@link AmortizationSchedule#getExtraViolationRun()})
+     * @return neuer Zahlungsplan
+     */
+    public AmortizationSchedule calculate(PaymentPlanRequest req, AmortizationSchedule previous, boolean validateExtras) {
+        AmortizationSchedule schedule = new AmortizationSchedule(req.getMode(), req.getPaymentMonths());
+        run(req, previous, validateExtras, schedule);
+        return schedule;
+    }
+
+    /**
+     * Berechnet den Zahlungsplan in einen vorhandenen (z. B. wiederverwendeten) Plan.
+     * Die Kapazität des Plans muss der Laufzeit der Anfrage entsprechen.
+     *
+     * @param req      Eingabedaten (validiert)
+     * @param schedule Ziel, wird vorher geleert
+     */
+    public void calculate(PaymentPlanRequest req, AmortizationSchedule schedule) {
+        if (schedule.getTotalRuns() != req.getPaymentMonths()) {
+            throw new IllegalArgumentException("Schedule capacity does not match payment months");
+        }
+        run(req, null, false, schedule);
+    }
+
+    /**
+     * Berechnet alle Monate der Anfrage und übergibt sie nacheinander an {@code sink}, ohne einen Plan anzulegen.
+     *
+     * @param req            Eingabedaten (validiert)
+     * @param sink           Empfänger der Perioden
+     * @param validateExtras true = Sondertilgungen gegen die Restschuld prüfen (Meldung an {@code sink})
+     */
+    public void stream(PaymentPlanRequest req, PeriodSink sink, boolean validateExtras) {
+        PaymentPlanElement plan = newElement(req);
+        startFirstRun(req, plan);
+        loop(req, plan, new DateCursor(req.getFirstPaymentDate()), validateExtras, sink);
+    }
+
+    private void run(PaymentPlanRequest req, AmortizationSchedule previous, boolean validateExtras,
+                     AmortizationSchedule schedule) {
+        schedule.clear();
+        schedule.setArithmetic(req.getArithmetic());
+        schedule.setRequest(req.copy());
+        schedule.setCheckpointInterval(checkpointInterval);
+
+        boolean cents = req.getArithmetic() == ArithmeticMode.CENTS;
+        PaymentPlanElement plan = newElement(req);
+        DateCursor date;
+
+        int resumeRows = resumableRows(req, previous);
+        if (resumeRows > 0) {
+            // Monate vor der ersten Änderung übernehmen, ab Checkpoint weiterrechnen
+            schedule.copyPrefix(previous, resumeRows);
+            plan.setRunNumber(resumeRows + 1);
+            plan.setTimeInDays(30);
+            plan.setFirstRun(false);
+            plan.setInitialValue(cents ? 0 : previous.getCheckpoint(resumeRows / checkpointInterval - 1));
+            plan.setInitialCents(previous.getFutureValue(resumeRows - 1));
+            date = new DateCursor(previous.getRepaymentDate(resumeRows - 1));
+            date.next();
+            if (validateExtras) validatePrefix(schedule, resumeRows);
+        } else {
+            startFirstRun(req, plan);
+            date = new DateCursor(req.getFirstPaymentDate());
+        }
+        if (schedule.getExtraViolationRun() > 0) return;
+
+        loop(req, plan, date, validateExtras, schedule);
+    }
+
+    private static PaymentPlanElement newElement(PaymentPlanRequest req) {
+        PaymentPlanElement plan = new PaymentPlanElement();
+        plan.setInterestRate(req.getInterestRate());
+        plan.setTotalRuns(req.getPaymentMonths());
+        return plan;
+    }
+
+    /** Zustand vor dem ersten Monat: Startkapital und Zinstage vom Vertragsdatum bis zur ersten Zahlung. */
+    private static void startFirstRun(PaymentPlanRequest req, PaymentPlanElement plan) {
+        plan.setTimeInDays((int) ChronoUnit.DAYS.between(req.getContractDate(), req.getFirstPaymentDate()));
+        plan.setFirstRun(true);
+        plan.setInitialValue(req.getInitialValue());
+        plan.setInitialCents(InterestUtils.toCents(req.getInitialValue()));
+    }
+
+    /** Setzt die Rate und rechnet ab dem aktuellen Monat des Elements bis zum Ende. */
+    private void loop(PaymentPlanRequest req, PaymentPlanElement plan, DateCursor date, boolean validateExtras,
+                      PeriodSink sink) {
+        CalculationService svc = req.getMode() == CalculationMode.LOAN ? loanService : depositService;
+        validateExtras &= req.getMode() == CalculationMode.LOAN;
+        if (req.getArithmetic() == ArithmeticMode.CENTS) {
+            plan.setRegularPaymentCents(InterestUtils.toCents(req.getPaymentAmount()));
+            runCents(req, svc, plan, date, validateExtras, sink);
+        } else {
+            plan.setRegularPaymentAmount(req.getPaymentAmount());
+            runDouble(req, svc, plan, date, validateExtras, sink);
+        }
+    }
+
+    /**
+     * Ermittelt, wie viele Zeilen aus dem früheren Plan unverändert übernommen werden können
+     * (immer ein Vielfaches des Checkpoint-Abstands, 0 = vollständige Neuberechnung).
+     */
+    private int resumableRows(PaymentPlanRequest req, AmortizationSchedule previous) {
+        if (previous == null || previous.getRequest() == null
+                || previous.getCheckpointInterval() != checkpointInterval
+                || !sameBaseParameters(req, previous.getRequest())) {
+            return 0;
+        }
+        int firstChange = firstChangedExtra(req.getExtraPayments(), previous.getRequest().getExtraPayments(),
+                req.getPaymentMonths());
+        int checkpoint = Math.min((firstChange - 1) / checkpointInterval, previous.getCheckpointCount());
+        int rows = checkpoint * checkpointInterval;
+        // Der frühere Plan muss über den Checkpoint hinaus gelaufen sein (keine vorzeitige Tilgung davor)
+        return rows > 0 && previous.size() > rows ? rows : 0;
+    }
+
+    /** Gleiche Eingaben abgesehen von den Sonderzahlungen? */
+    private static boolean sameBaseParameters(PaymentPlanRequest a, PaymentPlanRequest b) {
+        return a.getMode() == b.getMode()
+                && a.getArithmetic() == b.getArithmetic()
+                && Double.compare(a.getInitialValue(), b.getInitialValue()) == 0
+                && Double.compare(a.getInterestRate(), b.getInterestRate()) == 0
+                && Double.compare(a.getPaymentAmount(), b.getPaymentAmount()) == 0
+                && Objects.equals(a.getPaymentMonths(), b.getPaymentMonths())
+                && Objects.equals(a.getContractDate(), b.getContractDate())
+                && Objects.equals(a.getFirstPaymentDate(), b.getFirstPaymentDate())
+                && Objects.equals(a.getManualFirstInterest(), b.getManualFirstInterest());
+    }
+
+    /** Erster Monat, in dem sich die Sonderzahlungen unterscheiden ({@code months + 1}, wenn keiner). */
+    private static int firstChangedExtra(Map<Integer, Double> current, Map<Integer, Double> previous, int months) {
+        double[] a = extrasByRun(current, months);
+        double[] b = extrasByRun(previous, months);
+        for (int run = 1; run <= months; run++) {
+            if (Double.compare(a[run], b[run]) != 0) return run;
+        }
+        return months + 1;
+    }
+
+    /** Prüft die übernommenen Zeilen auf zu hohe Sondertilgungen (Restschuld vor Sondertilgung aus den Spalten). */
+    private static void validatePrefix(AmortizationSchedule schedule, int rows) {
+        if (schedule.getMode() != CalculationMode.LOAN) return;
+        for (int row = 0; row < rows; row++) {
+            long extra = schedule.getExtraPayment(row);
+            if (extra != 0 && exceedsDebt(extra, schedule.getFutureValue(row))) {
+                schedule.setExtraViolation(row + 1, debtBeforeExtra(extra, schedule.getFutureValue(row)));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Kredit: übersteigt die Sondertilgung die Restschuld vor ihrer Buchung?
+     *
+     * @param extraCents       Sondertilgung
+     * @param futureAfterCents Restschuld nach Buchung der Sondertilgung
+     */
+    private static boolean exceedsDebt(long extraCents, long futureAfterCents) {
+        return extraCents > debtBeforeExtra(extraCents, futureAfterCents);
+    }
+
+    /**
+     * Restschuld nach der regulären Rate, vor der Sondertilgung. Tilgt die Rate im letzten Monat bereits mehr als
+     * die Schuld, ist der Stand negativ; es bleibt dann nichts, was eine Sondertilgung noch tilgen könnte.
+     */
+    private static long debtBeforeExtra(long extraCents, long futureAfterCents) {
+        return Math.max(0, futureAfterCents + extraCents);
+    }
+
+    /** Monatsschleife in Gleitkomma (bisheriges Verhalten des Controllers). */
+    private void runDouble(PaymentPlanRequest req, CalculationService svc, PaymentPlanElement plan,
+                           DateCursor date, boolean validateExtras, PeriodSink sink) {
+        CalculationMode mode = req.getMode();
+        int months = req.getPaymentMonths();
+        double[] extras = extrasByRun(req.getExtraPayments(), months);
+        Double manualFirstInterest = req.getManualFirstInterest();
+
+        for (int run = plan.getRunNumber(); run <= months; run++) {
+
+            // initiale Berechnung
+            svc.calculate(plan);
+
+            // manuelle Zinsen (nur im 1. Monat)
+            if (run == 1 && manualFirstInterest != null) {
+                double delta = manualFirstInterest - plan.getInterestAmount();
+                plan.setInterestAmount(manualFirstInterest);
+                applyDelta(plan, mode, delta);
+            }
+
+            plan.setFirstRun(false);
+
+            // Sondertilgung
+            double extra = extras[run];
+            if (extra != 0.0) {
+                applyDelta(plan, mode, extra);
+                if (validateExtras) {
+                    long extraCents = InterestUtils.toCents(extra);
+                    long futureCents = InterestUtils.toCents(plan.getFutureValue());
+                    if (exceedsDebt(extraCents, futureCents)) {
+                        sink.extraViolation(run, debtBeforeExtra(extraCents, futureCents));
+                        return;
+                    }
+                }
+            }
+
+            // Kredit-spezifischer Abbruch
+            boolean payoff = false;
+            if (mode == CalculationMode.LOAN) {
+                if (plan.getFutureValue() < 0) {
+                    double corrected = plan.getRegularPaymentAmount() + plan.getFutureValue();
+                    plan.setRegularPaymentAmount(Math.max(0, corrected));
+                    svc.calculate(plan);
+                    payoff = true;
+                } else if (plan.getInitialValue() < plan.getRegularPaymentAmount()) {
+                    plan.setRegularPaymentAmount(plan.getInitialValue());
+                    svc.calculate(plan);
+                    payoff = true;
+                }
+            }
+
+            sink.period(
+                    InterestUtils.toCents(plan.getInitialValue()),
+                    InterestUtils.toCents(plan.getFutureValue()),
+                    InterestUtils.toCents(plan.getInterestAmount()),
+                    InterestUtils.toCents(plan.getRegularPaymentAmount()),
+                    InterestUtils.toCents(plan.getAmountChangeValue()),
+                    InterestUtils.toCents(extra),
+                    plan.getTimeInDays(),
+                    date.epochDay,
+                    plan.isLastRun());
+            if (payoff) break;
+
+            plan.advanceToNextRun();
+            date.next();
+            if (run % checkpointInterval == 0) {
+                sink.checkpoint(plan.getInitialValue());
+            }
+        }
+    }
+
+    /**
+     * Monatsschleife in Cent-Festkomma: gleiche Ablauflogik wie {@link #runDouble}, aber ausschließlich
+     * {@code long}-Arithmetik. Gerundet wird nur bei den Zinsen, nach {@link #centsRounding}.
+     * Die Checkpoints markieren hier nur den Fortschritt; fortgesetzt wird aus den exakten Cent-Spalten.
+     */
+    private void runCents(PaymentPlanRequest req, CalculationService svc, PaymentPlanElement plan,
+                          DateCursor date, boolean validateExtras, PeriodSink sink) {
+        CalculationMode mode = req.getMode();
+        int months = req.getPaymentMonths();
+        long[] extras = extraCentsByRun(req.getExtraPayments(), months);
+        Long manualFirstInterest = req.getManualFirstInterest() == null
+                ? null : InterestUtils.toCents(req.getManualFirstInterest());
+
+        for (int run = plan.getRunNumber(); run <= months; run++) {
+
+            svc.calculateCents(plan, centsRounding);
+
+            if (run == 1 && manualFirstInterest != null) {
+                long delta = manualFirstInterest - plan.getInterestCents();
+                plan.setInterestCents(manualFirstInterest);
+                applyDeltaCents(plan, mode, delta);
+            }
+
+            plan.setFirstRun(false);
+
+            long extra = extras[run];
+            if (extra != 0) {
+                applyDeltaCents(plan, mode, extra);
+                if (validateExtras && exceedsDebt(extra, plan.getFutureCents())) {
+                    sink.extraViolation(run, debtBeforeExtra(extra, plan.getFutureCents()));
+                    return;
+                }
+            }
+
+            boolean payoff = false;
+            if (mode == CalculationMode.LOAN) {
+                if (plan.getFutureCents() < 0) {
+                    plan.setRegularPaymentCents(Math.max(0, plan.getRegularPaymentCents() + plan.getFutureCents()));
+                    svc.calculateCents(plan, centsRounding);
+                    payoff = true;
+                } else if (plan.getInitialCents() < plan.getRegularPaymentCents()) {
+                    plan.setRegularPaymentCents(plan.getInitialCents());
+                    svc.calculateCents(plan, centsRounding);
+                    payoff = true;
+                }
+            }
+
+            sink.period(
+                    plan.getInitialCents(),
+                    plan.getFutureCents(),
+                    plan.getInterestCents(),
+                    plan.getRegularPaymentCents(),
+                    plan.getAmountChangeCents(),
+                    extra,
+                    plan.getTimeInDays(),
+                    date.epochDay,
+                    plan.getAmountChangeCents() == plan.getInitialCents() || run == months);
+            if (payoff) break;
+
+            plan.advanceToNextRun();
+            date.next();
+            if (run % checkpointInterval == 0) {
+                sink.checkpoint(plan.getInitialCents());
+            }
+        }
+    }
+
+    /** Bucht Sonderzahlung bzw. Zinskorrektur auf Kapital und Veränderung (Kredit: Tilgung, Einlage: Zuwachs). */
+    private static void applyDelta(PaymentPlanElement plan, CalculationMode mode, double delta) {
+        if (mode == CalculationMode.DEPOSIT) {
+            plan.setFutureValue(plan.getFutureValue() + delta);
+        } else {
+            plan.setFutureValue(plan.getFutureValue() - delta);
+        }
+        plan.setAmountChangeValue(plan.getAmountChangeValue() + delta);
+    }
+
+    /** Cent-Variante von {@link #applyDelta(PaymentPlanElement, CalculationMode, double)}. */
+    private static void applyDeltaCents(PaymentPlanElement plan, CalculationMode mode, long delta) {
+        if (mode == CalculationMode.DEPOSIT) {
+            plan.setFutureCents(plan.getFutureCents() + delta);
+        } else {
+            plan.setFutureCents(plan.getFutureCents() - delta);
+        }
+        plan.setAmountChangeCents(plan.getAmountChangeCents() + delta);
+    }
+
+    /** Überführt die Sonderzahlungen in ein Array (Index = Monatsnummer), damit die Schleife nicht boxen muss. */
+    private static double[] extrasByRun(Map<Integer, Double> extraPayments, int months) {
+        double[] extras = new double[months + 1];
+        if (extraPayments != null) {
+            for (Map.Entry<Integer, Double> e : extraPayments.entrySet()) {
+                Integer run = e.getKey();
+                if (run != null && run >= 1 && run <= months && e.getValue() != null) {
+                    extras[run] = e.getValue();
+                }
+            }
+        }
+        return extras;
+    }
+
+    /** Wie {@link #extrasByRun(Map, int)}, Beträge in Cent. */
+    private static long[] extraCentsByRun(Map<Integer, Double> extraPayments, int months) {
+        double[] extras = extrasByRun(extraPayments, months);
+        long[] cents = new long[extras.length];
+        for (int i = 0; i < extras.length; i++) {
+            cents[i] = InterestUtils.toCents(extras[i]);
+        }
+        return cents;
+    }
+
+    /**
+     * Schreibt das Zahlungsdatum ohne LocalDate-Objekte fort
+     * (Semantik wie {@code plusMonths(1)}, inkl. Kappung auf das Monatsende).
+     */
+    private static final class DateCursor {
+        private int year;
+        private int month;
+        private int day;
+        private int epochDay;
+
+        private DateCursor(LocalDate first) {
+            this.year = first.getYear();
+            this.month = first.getMonthValue();
+            this.day = first.getDayOfMonth();
+            this.epochDay = (int) first.toEpochDay();
+        }
+
+        private void next() {
+            int previousMonthLength = lengthOfMonth(year, month);
+            int previousDay = day;
+            if (++month > 12) {
+                month = 1;
+                year++;
+            }
+            day = Math.min(day, lengthOfMonth(year, month));
+            epochDay += previousMonthLength - previousDay + day;
+        }
+
+        private static int lengthOfMonth(int year, int month) {
+            return Month.of(month).length(Year.isLeap(year));
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Zeus Interest Calculator – AnnuityFormula
+ * -----------------------------------------
+ * Geschlossene Form des Kapitalverlaufs eines Annuitätenplans.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+import de.zeus.interest.dto.PaymentPlanRequest;
+import de.zeus.interest.model.CalculationMode;
+
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Geschlossene Form des Stands nach {@code n} Monaten mit den Regeln der {@link AmortizationEngine} (erster Monat
+ * pro rata über die Tage ab Vertragsdatum, danach 30/360, also {@code q = 1 + p/1200}):
+ * <pre>
+ * Z1 = P·p·d1/36000
+ * B1 = P + Z1 ± A                    (mit manuellen Zinsen M: P + Z1 ± (M - Z1) ± A)
+ * Bn = B1·q^(n-1) ± A·(q^(n-1) - 1)/(q - 1) ± Σ Sonderzahlung(k)·q^(n-k)
+ * </pre>
+ * ({@code -} beim Kredit, {@code +} bei der Einlage). Eine Auswertung kostet O(1) plus eine Addition je
+ * Sonderzahlung bis Monat {@code n}; die Cent-Rundung der Engine je Monat bildet sie nicht ab.
+ */
+final class AnnuityFormula {
+
+    /** Obergrenze des Zinssatzes (wie bei der Validierung) */
+    static final double MAX_RATE = 100;
+
+    /** Abbruchgenauigkeit des Newton-Verfahrens in Prozentpunkten */
+    private static final double RATE_TOLERANCE = 1e-10;
+
+    /** Schrittweite für die Ableitung nach dem Zinssatz */
+    private static final double RATE_STEP = 1e-7;
+
+    private static final int MAX_ITERATIONS = 100;
+
+    /** -1 beim Kredit (Zahlungen senken den Stand), +1 bei der Einlage */
+    private final int sign;
+    private final boolean loan;
+    private final long firstDays;
+    private final Double manualFirstInterest;
+    private final int[] extraRuns;
+    private final double[] extraAmounts;
+    private final double targetBalance;
+
+    private int evaluations;
+
+    /**
+     * Das Ziel ist mit keinem zulässigen Wert der gesuchten Größe erreichbar. Trägt den Schlüssel der
+     * Fehlermeldung; übersetzt wird sie vom {@link AnnuitySolver}.
+     */
+    static final class UnreachableTargetException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final String messageKey;
+        private final transient Object[] arguments;
+
+        UnreachableTargetException(String messageKey, Object... arguments) {
+            super(messageKey, null, false, false);
+            this.messageKey = messageKey;
+            this.arguments = arguments;
+        }
+
+        String getMessageKey() {
+            return messageKey;
+        }
+
+        Object[] getArguments() {
+            return arguments;
+        }
+    }
+
+    /**
+     * @param req           Eingaben (Modus, Daten, manuelle Zinsen und Sonderzahlungen werden übernommen)
+     * @param targetBalance Zielstand für die Auflösung nach einer Größe (0, wenn nur ausgewertet wird)
+     */
+    AnnuityFormula(PaymentPlanRequest req, double targetBalance) {
+        this.loan = req.getMode() == CalculationMode.LOAN;
+        this.sign = loan ? -1 : 1;
+        this.firstDays = ChronoUnit.DAYS.between(req.getContractDate(), req.getFirstPaymentDate());
+        this.manualFirstInterest = req.getManualFirstInterest();
+        this.targetBalance = targetBalance;
+
+        // nach Monat sortiert, damit die Summe bei kürzerer Laufzeit früh abbrechen kann
+        TreeMap<Integer, Double> extras = new TreeMap<>();
+        if (req.getExtraPayments() != null) {
+            for (Map.Entry<Integer, Double> e : req.getExtraPayments().entrySet()) {
+                if (e.getKey() != null && e.getKey() >= 1 && e.getValue() != null && e.getValue() != 0) {
+                    extras.put(e.getKey(), e.getValue());
+                }
+            }
+        }
+        this.extraRuns = new int[extras.size()];
+        this.extraAmounts = new double[extras.size()];
+        int i = 0;
+        for (Map.Entry<Integer, Double> e : extras.entrySet()) {
+            extraRuns[i] = e.getKey();
+            extraAmounts[i++] = e.getValue();
+        }
+    }
+
+    /** Stand (Restschuld bzw. Guthaben) nach {@code months} Monaten, ohne Cent-Rundung */
+    double balance(double principal, double rate, double payment, int months) {
+        evaluations++;
+        double i = rate / 1200;
+        double logQ = Math.log1p(i);
+        double proRata = principal * rate * firstDays / 36000.0;
+        // wie die Engine: die Abweichung manueller Zinsen wird wie eine Sonderzahlung gebucht
+        double first = principal + proRata + (manualFirstInterest != null ? sign * (manualFirstInterest - proRata) : 0);
+        double annuity = i == 0 ? months : Math.expm1(months * logQ) / i;
+        double extras = 0;
+        for (int k = 0; k < extraRuns.length && extraRuns[k] <= months; k++) {
+            extras += extraAmounts[k] * Math.exp((months - extraRuns[k]) * logQ);
+        }
+        return first * Math.exp((months - 1) * logQ) + sign * (payment * annuity + extras);
+    }
+
+    /** Anzahl bisheriger Auswertungen */
+    int getEvaluations() {
+        return evaluations;
+    }
+
+    boolean isLoan() {
+        return loan;
+    }
+
+    /** Wie weit der Stand das Ziel verfehlt (größer 0 = nicht erreicht) */
+    double shortfall(double balance) {
+        return loan ? balance - targetBalance : targetBalance - balance;
+    }
+
+    /** Der Stand ist affin in der Rate: aus zwei Auswertungen exakt auflösbar. */
+    double solvePayment(double principal, double rate, int months) {
+        double withoutPayment = balance(principal, rate, 0, months);
+        double perUnit = balance(principal, rate, 1, months) - withoutPayment;
+        return (targetBalance - withoutPayment) / perUnit;
+    }
+
+    /** Der Stand ist affin im Kapital: aus zwei Auswertungen exakt auflösbar. */
+    double solvePrincipal(double rate, double payment, int months) {
+        double withoutPrincipal = balance(0, rate, payment, months);
+        double perUnit = balance(1, rate, payment, months) - withoutPrincipal;
+        return (targetBalance - withoutPrincipal) / perUnit;
+    }
+
+    /**
+     * Newton-Verfahren auf {@code Bn(p) - Ziel} im Intervall [0, 100]. Der Stand steigt dort mit dem Zins
+     * (beim Kredit die Restschuld, bei der Einlage das Guthaben); verlässt ein Newton-Schritt das Intervall oder
+     * ist die Steigung nicht positiv, wird halbiert. Erreicht schon jeder Zins das Ziel, ist die Grenze selbst
+     * die Lösung (Kredit: höchster, Einlage: niedrigster Zins).
+     */
+    double solveRate(double principal, double payment, int months) {
+        double lo = 0;
+        double hi = MAX_RATE;
+        double fLo = balance(principal, lo, payment, months) - targetBalance;
+        double fHi = balance(principal, hi, payment, months) - targetBalance;
+        if (loan ? fLo > 0 : fHi < 0) {
+            throw new UnreachableTargetException("validation.solver.rate.unreachable");
+        }
+        if (loan && fHi <= 0) return hi;
+        if (fLo >= 0) return lo;
+
+        double rate = lo - fLo * (hi - lo) / (fHi - fLo);
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            double f = balance(principal, rate, payment, months) - targetBalance;
+            if (f == 0) return rate;
+            if (f < 0) lo = rate;
+            else hi = rate;
+
+            double slope = (balance(principal, rate + RATE_STEP, payment, months) - targetBalance - f) / RATE_STEP;
+            double next = rate - f / slope;
+            if (!(slope > 0) || next <= lo || next >= hi) {
+                next = (lo + hi) / 2;
+            }
+            if (Math.abs(next - rate) < RATE_TOLERANCE) return next;
+            rate = next;
+        }
+        return rate;
+    }
+
+    /**
+     * Kleinste Laufzeit, nach der das Ziel erreicht ist, per Bisektion über die Monate (höchstens
+     * elf Auswertungen). Ab dem ersten Erreichen bleibt das Ziel erreicht, sofern die Rate beim Kredit
+     * mehr als die Zinsen auf den Zielstand deckt.
+     */
+    double solveTerm(double principal, double rate, double payment) {
+        if (loan && payment <= rate / 1200 * Math.max(targetBalance, 0)) {
+            throw new UnreachableTargetException("validation.solver.term.interest");
+        }
+        int lo = 1;
+        int hi = PaymentPlanService.MAX_PAYMENT_MONTHS;
+        if (shortfall(balance(principal, rate, payment, hi)) > 0) {
+            throw new UnreachableTargetException("validation.solver.term.unreachable", String.valueOf(hi));
+        }
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (shortfall(balance(principal, rate, payment, mid)) > 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
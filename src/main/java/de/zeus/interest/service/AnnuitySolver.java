@@ -0,0 +1,225 @@
+/*
+ * Zeus Interest Calculator – AnnuitySolver
+ * ----------------------------------------
+ * Bestimmt Rate, Kapital, Zinssatz oder Laufzeit eines Annuitätenplans aus den übrigen drei Größen.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+import de.zeus.interest.dto.PaymentPlanRequest;
+import de.zeus.interest.dto.PlanSummary;
+import de.zeus.interest.dto.SolverResult;
+import de.zeus.interest.model.CalculationMode;
+import de.zeus.interest.model.SolveTarget;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.MessageSource;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * Löst einen Zahlungsplan nach der fehlenden Größe auf, ohne ihn dafür wiederholt durchzurechnen.
+ * <p>
+ * Grundlage ist die geschlossene Form des Kapitalverlaufs ({@link AnnuityFormula}). Rate und Kapital gehen linear
+ * ein und werden direkt aufgelöst, der Zinssatz per Newton-Verfahren mit Bisektion als Absicherung, die Laufzeit
+ * per Bisektion über die Monate. Jeder Schritt kostet eine Formelauswertung statt einer Simulation.
+ * <p>
+ * Weil die Engine je Monat auf Cent rundet (und im letzten Kreditmonat nur die Restschuld ohne deren Zinsen
+ * zahlt), kann das auf Cent, Monat bzw. 1/1.000.000 Prozent gerundete Ergebnis um wenige Einheiten danebenliegen.
+ * Die kleinste Einheit, mit der der tatsächlich berechnete Plan ({@link PaymentPlanService#summarize}) das Ziel
+ * erreicht, wird daher ab diesem Startwert per exponentieller Suche und Bisektion über Simulationen bestimmt.
+ */
+@Service
+@RequiredArgsConstructor
+public class AnnuitySolver {
+
+    /** Höchstzahl an Simulationen bei der Suche nach der gerundeten Grenze */
+    private static final int MAX_SIMULATIONS = 64;
+
+    /** Toleranz beim Runden auf die Einheit (Gleitkommafehler der Formel) */
+    private static final double ROUNDING_SLACK = 1e-6;
+
+    private final PaymentPlanService paymentPlanService;
+    private final MessageSource messageSource;
+
+    /**
+     * Bestimmt die gesuchte Größe so, dass der Plan nach der Laufzeit den Zielstand erreicht
+     * (Kredit: Restschuld höchstens {@code targetBalance}, Einlage: Guthaben mindestens {@code targetBalance}).
+     *
+     * @param request       Eingaben; der Wert der gesuchten Größe wird ignoriert
+     * @param target        gesuchte Größe
+     * @param targetBalance Zielstand nach der Laufzeit (Kredit üblicherweise 0, sonst Restschuld/Sparziel)
+     * @return gerundeter Wert mit vervollständigter Anfrage und Kennzahlen des Plans
+     * @throws IllegalArgumentException bei ungültigen Eingaben oder wenn kein zulässiger Wert das Ziel erreicht
+     */
+    public SolverResult solve(PaymentPlanRequest request, SolveTarget target, double targetBalance) {
+        PaymentPlanRequest req = request.copy();
+        // Platzhalter, damit die übrigen Eingaben wie bei einer Berechnung geprüft werden
+        if (target == SolveTarget.TERM) req.setPaymentMonths(PaymentPlanService.MAX_PAYMENT_MONTHS);
+        if (target == SolveTarget.RATE) req.setInterestRate(0);
+        paymentPlanService.validateRequest(req);
+
+        AnnuityFormula annuity = new AnnuityFormula(req, targetBalance);
+        double solution;
+        try {
+            solution = switch (target) {
+                case PAYMENT -> annuity.solvePayment(req.getInitialValue(), req.getInterestRate(), req.getPaymentMonths());
+                case PRINCIPAL -> annuity.solvePrincipal(req.getInterestRate(), req.getPaymentAmount(), req.getPaymentMonths());
+                case RATE -> annuity.solveRate(req.getInitialValue(), req.getPaymentAmount(), req.getPaymentMonths());
+                case TERM -> annuity.solveTerm(req.getInitialValue(), req.getInterestRate(), req.getPaymentAmount());
+            };
+        } catch (AnnuityFormula.UnreachableTargetException e) {
+            throw new IllegalArgumentException(message(e.getMessageKey(), e.getArguments()));
+        }
+        // Gerechnet wird in u = Einheiten·Richtung, sodass "erreicht" mit u monoton zunimmt. Ein negativer Wert
+        // heißt daher nur bei fallender Richtung "unerreichbar"; sonst erreicht schon 0 das Ziel.
+        int direction = direction(req.getMode(), target);
+        if (solution < 0 && direction < 0) {
+            throw new IllegalArgumentException(message("validation.solver.negative", targetName(target)));
+        }
+
+        // Die Engine rundet je Monat auf Cent: Grenze zwischen verfehlt und erreicht ab dem gerundeten Wert per
+        // exponentieller Suche und Bisektion über ganze Einheiten bestimmen (meist zwei Simulationen).
+        long lowest = direction > 0 ? minUnits(target) : -maxUnits(target);
+        long highest = direction > 0 ? maxUnits(target) : -minUnits(target);
+        Probe probe = new Probe(req, target, direction, annuity);
+
+        long start = Math.max(lowest, Math.min(highest, toUnits(solution, target, direction) * direction));
+        long miss;
+        long hit;
+        PlanSummary hitSummary;
+        if (probe.reaches(start)) {
+            hit = start;
+            hitSummary = probe.summary;
+            for (long step = 1; ; step *= 2) {
+                long next = Math.max(hit - step, lowest);
+                if (next == hit) {
+                    // Untergrenze erreicht das Ziel bereits
+                    miss = hit - 1;
+                    break;
+                }
+                if (!probe.reaches(next)) {
+                    miss = next;
+                    break;
+                }
+                hit = next;
+                hitSummary = probe.summary;
+            }
+        } else {
+            miss = start;
+            for (long step = 1; ; step *= 2) {
+                long next = Math.min(miss + step, highest);
+                if (next == miss) {
+                    throw new IllegalArgumentException(message("validation.solver.rounding", targetName(target)));
+                }
+                if (probe.reaches(next)) {
+                    hit = next;
+                    hitSummary = probe.summary;
+                    break;
+                }
+                miss = next;
+            }
+        }
+        while (hit - miss > 1) {
+            long mid = miss + (hit - miss) / 2;
+            if (probe.reaches(mid)) {
+                hit = mid;
+                hitSummary = probe.summary;
+            } else {
+                miss = mid;
+            }
+        }
+
+        long units = hit * direction;
+        apply(req, target, units);
+        return new SolverResult(target, BigDecimal.valueOf(units, target.getScale()), req, hitSummary,
+                annuity.getEvaluations(), probe.simulations);
+    }
+
+    private String message(String key, Object... args) {
+        return messageSource.getMessage(key, args, Locale.getDefault());
+    }
+
+    /** Bezeichnung der gesuchten Größe in der Sprache der Fehlermeldungen */
+    private String targetName(SolveTarget target) {
+        return message("solver.target." + target.name().toLowerCase());
+    }
+
+    /**
+     * Richtung, in der die Größe das Ziel näher bringt: Beim Kredit senken mehr Rate bzw. Laufzeit und weniger
+     * Kapital bzw. Zins die Restschuld, bei der Einlage erhöhen alle vier das Guthaben.
+     */
+    private static int direction(CalculationMode mode, SolveTarget target) {
+        boolean lower = mode == CalculationMode.LOAN && (target == SolveTarget.PRINCIPAL || target == SolveTarget.RATE);
+        return lower ? -1 : 1;
+    }
+
+    /** Rundet auf die Einheit der Größe, und zwar zur sicheren Seite hin. */
+    private static long toUnits(double value, SolveTarget target, int direction) {
+        double units = value / target.getUnit();
+        return (long) (direction > 0 ? Math.ceil(units - ROUNDING_SLACK) : Math.floor(units + ROUNDING_SLACK));
+    }
+
+    private static double fromUnits(long units, SolveTarget target) {
+        return BigDecimal.valueOf(units, target.getScale()).doubleValue();
+    }
+
+    private static long minUnits(SolveTarget target) {
+        return target == SolveTarget.TERM ? 1 : 0;
+    }
+
+    private static long maxUnits(SolveTarget target) {
+        return switch (target) {
+            case RATE -> Math.round(AnnuityFormula.MAX_RATE / target.getUnit());
+            case TERM -> PaymentPlanService.MAX_PAYMENT_MONTHS;
+            default -> Long.MAX_VALUE / 4;
+        };
+    }
+
+    private static void apply(PaymentPlanRequest req, SolveTarget target, long units) {
+        double value = fromUnits(units, target);
+        switch (target) {
+            case PAYMENT -> req.setPaymentAmount(value);
+            case PRINCIPAL -> req.setInitialValue(value);
+            case RATE -> req.setInterestRate(value);
+            case TERM -> req.setPaymentMonths((int) units);
+        }
+    }
+
+    /**
+     * Simuliert den Plan für einen Wert der gesuchten Größe und zählt die Simulationen. Ein Plan, dessen
+     * Sondertilgungen die Restschuld übersteigen, ist kein gültiger Kandidat und zählt als verfehlt.
+     */
+    private final class Probe {
+        private final PaymentPlanRequest req;
+        private final SolveTarget target;
+        private final int direction;
+        private final AnnuityFormula annuity;
+        private int simulations;
+        private PlanSummary summary;
+
+        private Probe(PaymentPlanRequest req, SolveTarget target, int direction, AnnuityFormula annuity) {
+            this.req = req;
+            this.target = target;
+            this.direction = direction;
+            this.annuity = annuity;
+        }
+
+        /** Erreicht der Plan mit {@code u·Richtung} Einheiten das Ziel? (Kennzahlen danach in {@link #summary}) */
+        boolean reaches(long u) {
+            if (++simulations > MAX_SIMULATIONS) {
+                throw new IllegalArgumentException(message("validation.solver.simulations",
+                        String.valueOf(MAX_SIMULATIONS)));
+            }
+            apply(req, target, u * direction);
+            summary = paymentPlanService.summarizeIfValid(req);
+            return summary != null && annuity.shortfall(summary.getResidualDebt().doubleValue()) <= 0;
+        }
+    }
+}
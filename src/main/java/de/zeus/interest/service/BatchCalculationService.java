@@ -0,0 +1,194 @@
+/*
+ * Zeus Interest Calculator – BatchCalculationService
+ * --------------------------------------------------
+ * Parallele Berechnung vieler Zahlungspläne in einem Aufruf.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+import de.zeus.interest.dto.BatchCalculationResult;
+import de.zeus.interest.dto.BatchEffectiveRateResult;
+import de.zeus.interest.dto.BatchSummaryResult;
+import de.zeus.interest.dto.PaymentPlanRequest;
+import de.zeus.interest.model.AmortizationSchedule;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Verteilt Batch-Berechnungen auf einen begrenzten {@link ForkJoinPool} (Standard: Anzahl CPU-Kerne).
+ * Die Ergebnisse behalten die Reihenfolge der Eingabe; Fehler werden je Eintrag gemeldet.
+ */
+@Service
+public class BatchCalculationService {
+
+    /** Einträge je Teilaufgabe, unterhalb dieser Größe wird nicht weiter geteilt */
+    private static final int SPLIT_THRESHOLD = 8;
+
+    private final PaymentPlanService paymentPlanService;
+    private final ForkJoinPool pool;
+    private final int maxBatchSize;
+
+    public BatchCalculationService(
+            PaymentPlanService paymentPlanService,
+            @Value("${paymentplan.batch.parallelism:0}") int parallelism,
+            @Value("${paymentplan.batch.max-size:10000}") int maxBatchSize) {
+        this.paymentPlanService = paymentPlanService;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Funktion, die einen einzelnen Batch-Eintrag verarbeitet.
+     *
+     * @param <T> Eingabetyp
+     * @param <R> Ergebnistyp
+     */
+    @FunctionalInterface
+    public interface ItemTask<T, R> {
+        R apply(int index, T item);
+    }
+
+    /**
+     * Validiert und berechnet alle Anfragen parallel.
+     *
+     * @param requests Anfragen in beliebiger Anzahl bis {@link #getMaxBatchSize()}
+     * @return ein Ergebnis je Anfrage, in Eingabereihenfolge
+     */
+    public List<BatchCalculationResult> calculate(List<PaymentPlanRequest> requests) {
+        return invokeAll(requests, this::calculateOne);
+    }
+
+    /**
+     * Validiert alle Anfragen und berechnet parallel nur ihre Kennzahlen (ohne Zeilen).
+     *
+     * @param requests Anfragen in beliebiger Anzahl bis {@link #getMaxBatchSize()}
+     * @return eine Zusammenfassung je Anfrage, in Eingabereihenfolge
+     */
+    public List<BatchSummaryResult> summarize(List<PaymentPlanRequest> requests) {
+        return invokeAll(requests, this::summarizeOne);
+    }
+
+    /**
+     * Validiert und berechnet alle Anfragen parallel und liefert je Plan den effektiven Jahreszins.
+     *
+     * @param requests Anfragen in beliebiger Anzahl bis {@link #getMaxBatchSize()}
+     * @return ein Ergebnis je Anfrage, in Eingabereihenfolge
+     */
+    public List<BatchEffectiveRateResult> effectiveRates(List<PaymentPlanRequest> requests) {
+        return invokeAll(requests, this::effectiveRateOne);
+    }
+
+    /**
+     * Wendet {@code task} parallel auf alle Einträge an und liefert die Ergebnisse in Eingabereihenfolge.
+     * Die Aufgabe ist selbst für die Fehlerbehandlung je Eintrag zuständig.
+     *
+     * @param items Eingaben
+     * @param task  Verarbeitung je Eintrag
+     * @return Ergebnisse in Eingabereihenfolge
+     * @throws IllegalArgumentException wenn der Batch größer als {@link #getMaxBatchSize()} ist
+     */
+    public <T, R> List<R> invokeAll(List<T> items, ItemTask<T, R> task) {
+        if (items.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch size " + items.size() + " exceeds limit of " + maxBatchSize);
+        }
+        Object[] results = new Object[items.size()];
+        pool.invoke(new RangeTask<>(items, task, results, 0, items.size()));
+        @SuppressWarnings("unchecked")
+        List<R> list = (List<R>) Arrays.asList(results);
+        return list;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private BatchCalculationResult calculateOne(int index, PaymentPlanRequest req) {
+        if (req == null) {
+            return new BatchCalculationResult(index, null, "Empty request");
+        }
+        try {
+            paymentPlanService.validateRequest(req);
+            AmortizationSchedule schedule = paymentPlanService.calculateChecked(req, null);
+            return new BatchCalculationResult(index, paymentPlanService.toRows(schedule), null);
+        } catch (RuntimeException ex) {
+            String message = ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName();
+            return new BatchCalculationResult(index, null, message);
+        }
+    }
+
+    private BatchSummaryResult summarizeOne(int index, PaymentPlanRequest req) {
+        if (req == null) {
+            return new BatchSummaryResult(index, null, "Empty request");
+        }
+        try {
+            paymentPlanService.validateRequest(req);
+            return new BatchSummaryResult(index, paymentPlanService.summarize(req), null);
+        } catch (RuntimeException ex) {
+            String message = ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName();
+            return new BatchSummaryResult(index, null, message);
+        }
+    }
+
+    private BatchEffectiveRateResult effectiveRateOne(int index, PaymentPlanRequest req) {
+        if (req == null) {
+            return new BatchEffectiveRateResult(index, null, null, "Empty request");
+        }
+        try {
+            paymentPlanService.validateRequest(req);
+            AmortizationSchedule schedule = paymentPlanService.calculateChecked(req, null);
+            return new BatchEffectiveRateResult(index, req.getInterestRate(),
+                    EffectiveRateCalculator.effectiveRate(schedule), null);
+        } catch (RuntimeException ex) {
+            String message = ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName();
+            return new BatchEffectiveRateResult(index, null, null, message);
+        }
+    }
+
+    /** Teilt den Indexbereich rekursiv, bis er klein genug für eine sequenzielle Verarbeitung ist. */
+    private static final class RangeTask<T, R> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<T> items;
+        private final ItemTask<T, R> task;
+        private final Object[] results;
+        private final int from;
+        private final int to;
+
+        private RangeTask(List<T> items, ItemTask<T, R> task, Object[] results, int from, int to) {
+            this.items = items;
+            this.task = task;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    results[i] = task.apply(i, items.get(i));
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask<>(items, task, results, from, mid),
+                    new RangeTask<>(items, task, results, mid, to));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Zeus Interest Calculator – BinaryPlanCodec
+ * ------------------------------------------
+ * Kompaktes spaltenorientiertes Binärformat für gespeicherte Zahlungspläne.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+import de.zeus.interest.dto.PaymentPlanResponse;
+import de.zeus.interest.model.AmortizationSchedule;
+import de.zeus.interest.model.ArithmeticMode;
+import de.zeus.interest.model.CalculationMode;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Speichert die Spalten des {@link AmortizationSchedule} unformatiert (Big Endian):
+ * <pre>
+ * Kopf:    "ZPLN" | Version (1 Byte) | Modus (1 Byte) | Arithmetik (1 Byte) | Laufzeit (int) | Zeilen (int)
+ * Spalten: Anfangswert, neuer Stand, Zinsen, Rate, Veränderung, Sonderzahlung (je long[Zeilen], Cent)
+ *          Tage, Zahlungsdatum als Epochentag (je int[Zeilen]), letzte Rate (byte[Zeilen])
+ * </pre>
+ * Formatiert wird erst beim Lesen, in der dann gültigen Locale.
+ */
+public final class BinaryPlanCodec implements PlanCodec {
+
+    static final byte[] MAGIC = {'Z', 'P', 'L', 'N'};
+    static final byte VERSION = 1;
+
+    private static final int HEADER_SIZE = MAGIC.length + 3 + 2 * Integer.BYTES;
+
+    private final PaymentPlanResponseMapper responseMapper;
+
+    public BinaryPlanCodec(PaymentPlanResponseMapper responseMapper) {
+        this.responseMapper = responseMapper;
+    }
+
+    @Override
+    public void write(AmortizationSchedule schedule, OutputStream out) throws IOException {
+        int rows = schedule.size();
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.write(MAGIC);
+        data.writeByte(VERSION);
+        data.writeByte(schedule.getMode() == CalculationMode.DEPOSIT ? 1 : 0);
+        data.writeByte(schedule.getArithmetic() == ArithmeticMode.CENTS ? 1 : 0);
+        data.writeInt(schedule.getTotalRuns());
+        data.writeInt(rows);
+        for (int row = 0; row < rows; row++) data.writeLong(schedule.getInitialValue(row));
+        for (int row = 0; row < rows; row++) data.writeLong(schedule.getFutureValue(row));
+        for (int row = 0; row < rows; row++) data.writeLong(schedule.getInterestAmount(row));
+        for (int row = 0; row < rows; row++) data.writeLong(schedule.getRegularPaymentAmount(row));
+        for (int row = 0; row < rows; row++) data.writeLong(schedule.getAmountChangeValue(row));
+        for (int row = 0; row < rows; row++) data.writeLong(schedule.getExtraPayment(row));
+        for (int row = 0; row < rows; row++) data.writeInt(schedule.getTimeInDays(row));
+        for (int row = 0; row < rows; row++) data.writeInt(schedule.getRepaymentEpochDay(row));
+        for (int row = 0; row < rows; row++) data.writeByte(schedule.isLastRun(row) ? 1 : 0);
+        data.flush();
+    }
+
+    @Override
+    public List<PaymentPlanResponse> read(byte[] data) throws IOException {
+        return responseMapper.toResponses(readSchedule(data));
+    }
+
+    /**
+     * Liest die Spalten zurück in einen {@link AmortizationSchedule} (ohne Anfrage und Checkpoints).
+     *
+     * @param data vollständiger Dateiinhalt
+     * @throws IOException bei fremdem Format, unbekannter Version oder abgeschnittener Datei
+     */
+    public AmortizationSchedule readSchedule(byte[] data) throws IOException {
+        if (!accepts(data)) {
+            throw new IOException("Not a binary payment plan");
+        }
+        ByteBuffer buf = ByteBuffer.wrap(data, MAGIC.length, data.length - MAGIC.length);
+        try {
+            byte version = buf.get();
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary plan version " + version);
+            }
+            CalculationMode mode = buf.get() == 1 ? CalculationMode.DEPOSIT : CalculationMode.LOAN;
+            ArithmeticMode arithmetic = buf.get() == 1 ? ArithmeticMode.CENTS : ArithmeticMode.DOUBLE;
+            int totalRuns = buf.getInt();
+            int rows = buf.getInt();
+            if (totalRuns < 0 || rows < 0 || rows > totalRuns
+                    || (long) rows * (6 * Long.BYTES + 2 * Integer.BYTES + 1) != data.length - HEADER_SIZE) {
+                throw new IOException("Corrupt binary plan");
+            }
+
+            long[][] amounts = new long[6][rows];
+            for (long[] column : amounts) {
+                for (int row = 0; row < rows; row++) column[row] = buf.getLong();
+            }
+            int[] days = new int[rows];
+            for (int row = 0; row < rows; row++) days[row] = buf.getInt();
+            int[] epochDays = new int[rows];
+            for (int row = 0; row < rows; row++) epochDays[row] = buf.getInt();
+
+            AmortizationSchedule schedule = new AmortizationSchedule(mode, totalRuns);
+            schedule.setArithmetic(arithmetic);
+            for (int row = 0; row < rows; row++) {
+                schedule.add(amounts[0][row], amounts[1][row], amounts[2][row], amounts[3][row],
+                        amounts[4][row], amounts[5][row], days[row], epochDays[row], buf.get() == 1);
+            }
+            return schedule;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated binary plan", e);
+        }
+    }
+
+    @Override
+    public boolean accepts(byte[] header) {
+        if (header.length < MAGIC.length) return false;
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (header[i] != MAGIC[i]) return false;
+        }
+        return true;
+    }
+}
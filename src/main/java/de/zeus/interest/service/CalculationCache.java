@@ -0,0 +1,84 @@
+/*
+ * Zeus Interest Calculator – CalculationCache
+ * -------------------------------------------
+ * Größenbeschränkter LRU-Cache für berechnete Zahlungspläne.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+import de.zeus.interest.dto.CacheStatistics;
+import de.zeus.interest.model.AmortizationSchedule;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hält die zuletzt verwendeten Zahlungspläne je {@link CalculationKey} (LRU-Verdrängung).
+ * Zwischengespeicherte Pläne werden von mehreren Aufrufern geteilt und dürfen nicht verändert werden.
+ */
+@Component
+public class CalculationCache {
+
+    private final int maxSize;
+    private final LinkedHashMap<CalculationKey, AmortizationSchedule> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public CalculationCache(@Value("${paymentplan.cache.size:256}") int maxSize) {
+        this.maxSize = Math.max(0, maxSize);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CalculationKey, AmortizationSchedule> eldest) {
+                if (size() > CalculationCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @param key Schlüssel der Anfrage
+     * @return zwischengespeicherter Plan oder {@code null}
+     */
+    public synchronized AmortizationSchedule get(CalculationKey key) {
+        AmortizationSchedule schedule = entries.get(key);
+        if (schedule != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return schedule;
+    }
+
+    /**
+     * Legt einen berechneten Plan ab und verdrängt bei Bedarf den am längsten ungenutzten Eintrag.
+     *
+     * @param key      Schlüssel der Anfrage
+     * @param schedule berechneter Plan (wird danach nicht mehr verändert)
+     */
+    public synchronized void put(CalculationKey key, AmortizationSchedule schedule) {
+        if (maxSize > 0) {
+            entries.put(key, schedule);
+        }
+    }
+
+    /** Verwirft alle Einträge; die Zähler bleiben erhalten. */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized CacheStatistics getStatistics() {
+        return new CacheStatistics(hits, misses, evictions, entries.size(), maxSize);
+    }
+}
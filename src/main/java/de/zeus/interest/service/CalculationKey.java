@@ -0,0 +1,87 @@
+/*
+ * Zeus Interest Calculator – CalculationKey
+ * -----------------------------------------
+ * Kanonischer Schlüssel einer Zahlungsplan-Anfrage.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+import de.zeus.interest.dto.PaymentPlanRequest;
+import de.zeus.interest.model.ArithmeticMode;
+import de.zeus.interest.model.CalculationMode;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Unveränderlicher Schlüssel über alle Eingaben, die das Ergebnis der {@link AmortizationEngine} bestimmen.
+ * Anfragen, die zum selben Zahlungsplan führen, erhalten denselben Schlüssel: Sonderzahlungen werden
+ * sortiert und ohne leere, Null- oder außerhalb der Laufzeit liegende Einträge übernommen.
+ */
+@EqualsAndHashCode
+@ToString
+public final class CalculationKey {
+
+    private final CalculationMode mode;
+    private final ArithmeticMode arithmetic;
+    private final double initialValue;
+    private final double interestRate;
+    private final double paymentAmount;
+    private final Integer paymentMonths;
+    private final LocalDate contractDate;
+    private final LocalDate firstPaymentDate;
+    private final Double manualFirstInterest;
+    private final SortedMap<Integer, Double> extraPayments;
+
+    /** Berechnung mit Prüfung der Sondertilgungen (bricht bei zu hoher Sondertilgung ab) */
+    private final boolean checked;
+
+    private CalculationKey(PaymentPlanRequest req, boolean checked) {
+        this.mode = req.getMode();
+        this.arithmetic = req.getArithmetic();
+        this.initialValue = req.getInitialValue();
+        this.interestRate = req.getInterestRate();
+        this.paymentAmount = req.getPaymentAmount();
+        this.paymentMonths = req.getPaymentMonths();
+        this.contractDate = req.getContractDate();
+        this.firstPaymentDate = req.getFirstPaymentDate();
+        this.manualFirstInterest = req.getManualFirstInterest();
+        this.extraPayments = canonicalExtras(req.getExtraPayments(), paymentMonths == null ? 0 : paymentMonths);
+        // Die Prüfung betrifft nur Kredite, Einlagen liefern in beiden Fällen dasselbe Ergebnis
+        this.checked = checked && mode == CalculationMode.LOAN;
+    }
+
+    /**
+     * @param req     Anfrage
+     * @param checked true, wenn Sondertilgungen gegen die Restschuld geprüft werden
+     * @return Schlüssel der Anfrage
+     */
+    public static CalculationKey of(PaymentPlanRequest req, boolean checked) {
+        return new CalculationKey(req, checked);
+    }
+
+    private static SortedMap<Integer, Double> canonicalExtras(Map<Integer, Double> extras, int months) {
+        if (extras == null || extras.isEmpty()) {
+            return Collections.emptySortedMap();
+        }
+        SortedMap<Integer, Double> sorted = new TreeMap<>();
+        for (Map.Entry<Integer, Double> e : extras.entrySet()) {
+            Integer run = e.getKey();
+            Double value = e.getValue();
+            if (run != null && run >= 1 && run <= months && value != null && value != 0.0) {
+                sorted.put(run, value);
+            }
+        }
+        return Collections.unmodifiableSortedMap(sorted);
+    }
+}
@@ -13,6 +13,8 @@ package de.zeus.interest.service;
 
 import de.zeus.interest.model.PaymentPlanElement;
 
+import java.math.RoundingMode;
+
 /**
  * Schnittstelle für verschiedene Berechnungstypen (z. B. Kredit, Einlage).
  * Ermöglicht eine einheitliche Verarbeitung von Zahlungsplänen.
@@ -26,6 +28,15 @@ public interface CalculationService {
      */
     void calculate(PaymentPlanElement value);
 
+    /**
+     * Führt die Berechnung für eine Periode in Cent-Festkomma durch
+     * (liest und schreibt die {@code *Cents}-Felder des Plan-Elements).
+     *
+     * @param value    Das zu berechnende Plan-Element
+     * @param rounding Rundungsregel für die Zinsen der Periode
+     */
+    void calculateCents(PaymentPlanElement value, RoundingMode rounding);
+
     /**
      * Berechnet die anfallenden Zinsen für eine Periode.
      *
@@ -36,6 +47,17 @@ public interface CalculationService {
      */
     double calculateInterestAmount(double initialValue, double interestRate, int timeInDays);
 
+    /**
+     * Berechnet die anfallenden Zinsen für eine Periode in ganzen Cent.
+     *
+     * @param initialCents Kapitalbetrag in Cent
+     * @param interestRate Zinssatz pro Jahr (in Prozent)
+     * @param timeInDays   Dauer der Periode in Tagen
+     * @param rounding     Rundungsregel auf ganze Cent
+     * @return Zinsbetrag in Cent
+     */
+    long calculateInterestCents(long initialCents, double interestRate, int timeInDays, RoundingMode rounding);
+
     /**
      * Berechnet die Veränderung des Kapitals durch Zahlung und Zinsen.
      *
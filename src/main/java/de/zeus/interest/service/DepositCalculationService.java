@@ -14,6 +14,8 @@ package de.zeus.interest.service;
 import de.zeus.interest.model.PaymentPlanElement;
 import org.springframework.stereotype.Service;
 
+import java.math.RoundingMode;
+
 /**
  * Service zur Berechnung von Einlagen (z. B. Sparplänen).
  * Führt Zinsen und Einzahlung als Kapitalzuwachs zusammen.
@@ -35,6 +37,21 @@ public class DepositCalculationService extends InterestCalculationService {
         value.setFutureValue(calculateFutureAmount(value.getInitialValue(), change));
     }
 
+    /**
+     * Wie {@link #calculate(PaymentPlanElement)}, jedoch exakt in ganzen Cent.
+     *
+     * @param value    Plan-Element mit Cent-Werten
+     * @param rounding Rundungsregel für die Zinsen
+     */
+    @Override
+    public void calculateCents(PaymentPlanElement value, RoundingMode rounding) {
+        long interest = calculateInterestCents(value.getInitialCents(), value.getInterestRate(), value.getTimeInDays(), rounding);
+        long change = value.getRegularPaymentCents() + interest;
+        value.setInterestCents(interest);
+        value.setAmountChangeCents(change);
+        value.setFutureCents(value.getInitialCents() + change);
+    }
+
     /**
      * Berechnet die Kapitalveränderung (Zinsen + Einzahlung).
      *
@@ -0,0 +1,166 @@
+/*
+ * Zeus Interest Calculator – EffectiveRateCalculator
+ * --------------------------------------------------
+ * Effektiver Jahreszins eines Zahlungsplans nach der Methode der Preisangabenverordnung (PAngV).
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+import de.zeus.interest.model.AmortizationSchedule;
+import de.zeus.interest.model.CalculationMode;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Bestimmt den effektiven Jahreszins {@code X} als internen Zinsfuß der Zahlungsströme eines Plans:
+ * <pre>
+ * Σ C(k) · (1 + X)^(-t(k)) = 0
+ * </pre>
+ * Auszahlung bzw. Anlage des Kapitals zum Vertragsdatum (t = 0), jede Rate samt Sonderzahlung zu ihrem
+ * Zahlungstermin und ein verbleibender Stand zum letzten Termin. {@code t} ist der Abstand zum Vertragsdatum in
+ * Jahren: ganze Monate (je 1/12 Jahr), vom Termin zurückgerechnet, plus Resttage (je 1/365 Jahr). Der pro rata
+ * verzinste erste Zeitraum geht so mit seiner tatsächlichen Länge ein.
+ * <p>
+ * Gelöst wird mit Newton-Raphson und analytischer Ableitung; verlässt ein Schritt das Intervall mit
+ * Vorzeichenwechsel, wird stattdessen halbiert. Die Zahlungsströme werden einmal in primitive Arrays übernommen,
+ * eine Iteration allokiert nichts.
+ */
+public final class EffectiveRateCalculator {
+
+    /** Untergrenze der Suche (-90 % p. a.), hält {@code (1 + X)^(-t)} auch bei 100 Jahren endlich */
+    private static final double MIN_RATE = -0.9;
+
+    /** Obergrenze der Suche (100.000 % p. a.) */
+    private static final double MAX_RATE = 1000;
+
+    private static final double TOLERANCE = 1e-12;
+
+    private static final int MAX_ITERATIONS = 100;
+
+    private EffectiveRateCalculator() {
+        // Utility class – kein Konstruktor erlaubt
+    }
+
+    /**
+     * Effektiver Jahreszins eines berechneten Plans, gerundet nach PAngV auf zwei Nachkommastellen.
+     *
+     * @param schedule Ergebnis der Engine
+     * @return Zinssatz in Prozent oder {@code null}, wenn der Plan keine Zahlungen hat bzw. kein Zins existiert
+     */
+    public static BigDecimal effectiveRate(AmortizationSchedule schedule) {
+        double rate = effectiveRateOf(schedule);
+        return Double.isFinite(rate) ? BigDecimal.valueOf(rate * 100).setScale(2, RoundingMode.HALF_UP) : null;
+    }
+
+    /**
+     * Effektiver Jahreszins eines berechneten Plans, ungerundet.
+     *
+     * @param schedule Ergebnis der Engine
+     * @return Zinssatz als Dezimalbruch (0.05 = 5 %) oder {@code NaN}
+     */
+    public static double effectiveRateOf(AmortizationSchedule schedule) {
+        int rows = schedule.size();
+        if (rows == 0) {
+            return Double.NaN;
+        }
+        // Vertragsdatum: erster Termin abzüglich der Zinstage des ersten (pro-rata-)Zeitraums
+        LocalDate start = schedule.getRepaymentDate(0).minusDays(schedule.getTimeInDays(0));
+        double sign = schedule.getMode() == CalculationMode.LOAN ? 1 : -1;
+
+        // Kredit: Auszahlung positiv, Raten und Restschuld negativ; Einlage umgekehrt beim Endguthaben
+        double[] amounts = new double[rows + 1];
+        double[] years = new double[rows + 1];
+        amounts[0] = sign * schedule.getInitialValue(0);
+        for (int row = 0; row < rows; row++) {
+            amounts[row + 1] = -(schedule.getRegularPaymentAmount(row) + schedule.getExtraPayment(row));
+            years[row + 1] = years(start, schedule.getRepaymentDate(row));
+        }
+        amounts[rows] -= sign * schedule.getFutureValue(rows - 1);
+
+        double nominal = schedule.getRequest() != null ? schedule.getRequest().getInterestRate() / 100 : 0.05;
+        return solve(amounts, years, rows + 1, Math.pow(1 + nominal / 12, 12) - 1);
+    }
+
+    /**
+     * Zeitabstand nach PAngV: ganze Monate (vom Termin zurückgerechnet) als Zwölftel, Resttage als 1/365 Jahr.
+     */
+    static double years(LocalDate start, LocalDate date) {
+        long months = ChronoUnit.MONTHS.between(start, date);
+        LocalDate anchor = date.minusMonths(months);
+        if (anchor.isBefore(start)) {
+            anchor = date.minusMonths(--months);
+        }
+        return months / 12.0 + ChronoUnit.DAYS.between(start, anchor) / 365.0;
+    }
+
+    /**
+     * Interner Zinsfuß der Zahlungsströme.
+     *
+     * @param amounts Beträge (Vorzeichen je Richtung), beliebige Einheit
+     * @param years   Zeitpunkte in Jahren ab 0
+     * @param count   Anzahl gültiger Einträge
+     * @param guess   Startwert (z. B. effektiver Nominalzins)
+     * @return Zinssatz als Dezimalbruch oder {@code NaN}, wenn im Suchintervall kein Vorzeichenwechsel liegt
+     */
+    static double solve(double[] amounts, double[] years, int count, double guess) {
+        double lo = MIN_RATE;
+        double fLo = presentValue(amounts, years, count, lo);
+        double hi = 1;
+        double fHi = presentValue(amounts, years, count, hi);
+        while (Math.signum(fLo) == Math.signum(fHi) && hi < MAX_RATE) {
+            lo = hi;
+            fLo = fHi;
+            hi = Math.min(hi * 4, MAX_RATE);
+            fHi = presentValue(amounts, years, count, hi);
+        }
+        if (Math.signum(fLo) == Math.signum(fHi) || Double.isNaN(fLo) || Double.isNaN(fHi)) {
+            return Double.NaN;
+        }
+        if (fLo == 0) return lo;
+        if (fHi == 0) return hi;
+
+        double x = guess > lo && guess < hi ? guess : (lo + hi) / 2;
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            double log = Math.log1p(x);
+            double f = 0;
+            double df = 0;
+            for (int k = 0; k < count; k++) {
+                double discounted = amounts[k] * Math.exp(-years[k] * log);
+                f += discounted;
+                df -= years[k] * discounted;
+            }
+            df /= 1 + x;
+            if (f == 0) return x;
+            if (Math.signum(f) == Math.signum(fLo)) {
+                lo = x;
+            } else {
+                hi = x;
+            }
+
+            double next = x - f / df;
+            if (!(next > lo && next < hi)) {
+                next = (lo + hi) / 2;
+            }
+            if (Math.abs(next - x) < TOLERANCE * (1 + Math.abs(x))) return next;
+            x = next;
+        }
+        return x;
+    }
+
+    private static double presentValue(double[] amounts, double[] years, int count, double rate) {
+        double log = Math.log1p(rate);
+        double sum = 0;
+        for (int k = 0; k < count; k++) {
+            sum += amounts[k] * Math.exp(-years[k] * log);
+        }
+        return sum;
+    }
+}
@@ -11,12 +11,23 @@
 
 package de.zeus.interest.service;
 
+import de.zeus.interest.util.InterestUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
 /**
  * Abstrakte Basisimplementierung für Berechnungs-Services mit Zinslogik.
  * Nutzt die vereinfachte 30/360-Methode zur Zinsberechnung.
  */
 public abstract class InterestCalculationService implements CalculationService {
 
+    /** Skalierung des Zinssatzes: 1 Einheit = 1/1.000.000 Prozent */
+    private static final long RATE_SCALE = 1_000_000L;
+
+    /** 100 % × 360 Tage × Skalierung des Zinssatzes */
+    private static final long INTEREST_DIVISOR = 100L * 360L * RATE_SCALE;
+
     /**
      * Berechnet den Zinsbetrag für einen Zeitraum in Tagen nach der 30/360-Methode.
      *
@@ -29,4 +40,31 @@ public abstract class InterestCalculationService implements CalculationService {
     public double calculateInterestAmount(double initialValue, double interestRate, int timeInDays) {
         return (initialValue * interestRate * timeInDays) / (100 * 360.0);
     }
+
+    /**
+     * Berechnet den Zinsbetrag nach der 30/360-Methode in ganzen Cent.
+     * Der Zinssatz wird dafür auf 1/1.000.000 Prozent genau als Ganzzahl dargestellt; gerechnet wird
+     * ausschließlich mit {@code long}. Nur wenn das Produkt den Wertebereich sprengt (Kapital jenseits
+     * von rund 10 Mio. € bei hohen Zinsen), wird auf {@link BigDecimal} ausgewichen.
+     *
+     * @param initialCents Kapitalbetrag in Cent
+     * @param interestRate Zinssatz pro Jahr in Prozent
+     * @param timeInDays   Anzahl Tage für die Zinsberechnung
+     * @param rounding     Rundungsregel auf ganze Cent
+     * @return Zinsbetrag in Cent
+     */
+    @Override
+    public long calculateInterestCents(long initialCents, double interestRate, int timeInDays, RoundingMode rounding) {
+        long rateMicros = Math.round(interestRate * RATE_SCALE);
+        try {
+            long numerator = Math.multiplyExact(Math.multiplyExact(initialCents, rateMicros), (long) timeInDays);
+            return InterestUtils.divideRounded(numerator, INTEREST_DIVISOR, rounding);
+        } catch (ArithmeticException overflow) {
+            return BigDecimal.valueOf(initialCents)
+                    .multiply(BigDecimal.valueOf(rateMicros))
+                    .multiply(BigDecimal.valueOf(timeInDays))
+                    .divide(BigDecimal.valueOf(INTEREST_DIVISOR), 0, rounding)
+                    .longValueExact();
+        }
+    }
 }
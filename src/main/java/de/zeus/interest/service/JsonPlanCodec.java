@@ -0,0 +1,66 @@
+/*
+ * Zeus Interest Calculator – JsonPlanCodec
+ * ----------------------------------------
+ * Zahlungspläne als JSON-Array formatierter Zeilen.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.zeus.interest.dto.PaymentPlanResponse;
+import de.zeus.interest.model.AmortizationSchedule;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Bisheriges Speicherformat: {@link PaymentPlanResponse}-Array, identisch mit Download und Upload.
+ * Dient beim Lesen als Rückfallformat für alle Dateien ohne bekannte Binärkennung; gelesen wird zeilenweise
+ * über den {@link PlanJsonReader}.
+ */
+public final class JsonPlanCodec implements PlanCodec {
+
+    private final ObjectMapper mapper;
+    private final PlanJsonReader reader;
+    private final PaymentPlanResponseMapper responseMapper;
+
+    public JsonPlanCodec(ObjectMapper mapper, PlanJsonReader reader, PaymentPlanResponseMapper responseMapper) {
+        this.mapper = mapper.copy().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.reader = reader;
+        this.responseMapper = responseMapper;
+    }
+
+    @Override
+    public void write(AmortizationSchedule schedule, OutputStream out) throws IOException {
+        write(responseMapper.toResponses(schedule), out);
+    }
+
+    /** Schreibt bereits formatierte Zeilen (z. B. nach dem Lesen eines Binärplans). */
+    public void write(List<PaymentPlanResponse> rows, OutputStream out) throws IOException {
+        mapper.writeValue(out, rows);
+    }
+
+    @Override
+    public List<PaymentPlanResponse> read(byte[] data) throws IOException {
+        return read(new ByteArrayInputStream(data));
+    }
+
+    /** Liest die Zeilen direkt aus dem Datenstrom (wird geschlossen). */
+    public List<PaymentPlanResponse> read(InputStream in) throws IOException {
+        return reader.read(in);
+    }
+
+    @Override
+    public boolean accepts(byte[] header) {
+        return true;
+    }
+}
@@ -0,0 +1,362 @@
+/*
+ * Zeus Interest Calculator – LogIndex
+ * -----------------------------------
+ * Speicherabgebildeter Offset-Index des Log-Plan-Speichers.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Hash-Tabelle mit offener Adressierung (lineares Sondieren) in einer per {@link MappedByteBuffer}
+ * eingeblendeten Datei: Datei-ID → Position des aktuellen Datensatzes im Segment-Log.
+ * Die Einträge liegen außerhalb des Heaps und überstehen einen Neustart.
+ * <pre>
+ * Kopf (64 Byte): "ZPIX" | Version | Kapazität | Einträge | belegte Slots | sauber geschlossen | nächste Sequenz
+ * Slot (104 Byte): Schlüssellänge (0 frei, -1 gelöscht) | Schlüssel (64 Byte) | Segment | Offset | Länge | Sequenz | Zeit
+ * </pre>
+ * Das Log bleibt die maßgebliche Quelle: Wurde der Index nicht sauber geschlossen, verwirft ihn
+ * {@link #open(Path, int)} und der Aufrufer baut ihn aus den Segmenten neu auf.
+ */
+final class LogIndex implements Closeable {
+
+    /** Maximale Länge einer Datei-ID (UTF-8) */
+    static final int MAX_KEY_BYTES = 64;
+
+    private static final int MAGIC = 0x5A504958; // "ZPIX"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int H_CAPACITY = 8;
+    private static final int H_SIZE = 12;
+    private static final int H_USED = 16;
+    private static final int H_CLEAN = 20;
+    private static final int H_NEXT_SEQUENCE = 24;
+
+    private static final int SLOT_SIZE = 104;
+    private static final int S_KEY_LENGTH = 0;
+    private static final int S_KEY = 4;
+    private static final int S_SEGMENT = 68;
+    private static final int S_OFFSET = 72;
+    private static final int S_LENGTH = 80;
+    private static final int S_SEQUENCE = 88;
+    private static final int S_TIMESTAMP = 96;
+
+    private static final int REMOVED = -1;
+    private static final int MAX_CAPACITY = Integer.highestOneBit((Integer.MAX_VALUE - HEADER_SIZE) / SLOT_SIZE);
+
+    /**
+     * Position eines Datensatzes im Log.
+     *
+     * @param segment   Segmentnummer
+     * @param offset    Beginn des Datensatzes im Segment
+     * @param length    Länge der Nutzdaten
+     * @param sequence  fortlaufende Schreibnummer (bleibt beim Kompaktieren erhalten)
+     * @param timestamp Zeitpunkt der Speicherung (ms seit Epoche)
+     */
+    record Location(int segment, long offset, int length, long sequence, long timestamp) { }
+
+    private final Path file;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final boolean recovered;
+    private FileChannel channel;
+    private MappedByteBuffer map;
+    private int capacity;
+    private int size;
+    private int used;
+    private long nextSequence;
+
+    private LogIndex(Path file, FileChannel channel, MappedByteBuffer map, boolean recovered) {
+        this.file = file;
+        this.channel = channel;
+        this.map = map;
+        this.recovered = recovered;
+        this.capacity = map.getInt(H_CAPACITY);
+        this.size = map.getInt(H_SIZE);
+        this.used = map.getInt(H_USED);
+        this.nextSequence = map.getLong(H_NEXT_SEQUENCE);
+    }
+
+    /**
+     * Öffnet den Index oder legt ihn leer an. Bis zum {@link #close()} gilt er als nicht sauber geschlossen.
+     *
+     * @param file            Indexdatei
+     * @param initialCapacity Anzahl Slots einer neuen Datei (wird auf eine Zweierpotenz aufgerundet)
+     */
+    static LogIndex open(Path file, int initialCapacity) throws IOException {
+        if (Files.exists(file) && Files.size(file) >= HEADER_SIZE) {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int capacity = map.getInt(H_CAPACITY);
+            boolean valid = map.getInt(0) == MAGIC && map.getInt(4) == VERSION && map.getInt(H_CLEAN) == 1
+                    && Integer.bitCount(capacity) == 1 && channel.size() == HEADER_SIZE + (long) capacity * SLOT_SIZE;
+            if (valid) {
+                map.putInt(H_CLEAN, 0);
+                map.force();
+                return new LogIndex(file, channel, map, true);
+            }
+            channel.close();
+        }
+        int capacity = Math.min(MAX_CAPACITY, Integer.highestOneBit(Math.max(16, initialCapacity - 1)) << 1);
+        Path temp = create(file, capacity);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new LogIndex(file, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()), false);
+    }
+
+    /** Wurde ein sauber geschlossener Index übernommen? Sonst ist er leer und muss aus dem Log aufgebaut werden. */
+    boolean isRecovered() {
+        return recovered;
+    }
+
+    /** @return Position des aktuellen Datensatzes oder {@code null} */
+    Location get(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_KEY_BYTES) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            int slot = probe(bytes);
+            return slot >= 0 ? location(slot) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Setzt die Position für {@code key}.
+     *
+     * @return bisherige Position oder {@code null}
+     * @throws IllegalArgumentException wenn die ID länger als {@link #MAX_KEY_BYTES} ist
+     */
+    Location put(String key, Location location) throws IOException {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_KEY_BYTES) {
+            throw new IllegalArgumentException("File id too long: " + key);
+        }
+        lock.writeLock().lock();
+        try {
+            int slot = probe(bytes);
+            Location previous = null;
+            if (slot >= 0) {
+                previous = location(slot);
+            } else {
+                if (used + 1 > capacity / 4 * 3) {
+                    resize();
+                    slot = probe(bytes);
+                }
+                slot = -slot - 1;
+                if (map.getInt(slotPos(slot) + S_KEY_LENGTH) == 0) {
+                    used++;
+                }
+                size++;
+                int pos = slotPos(slot);
+                map.putInt(pos + S_KEY_LENGTH, bytes.length);
+                map.put(pos + S_KEY, bytes);
+            }
+            write(slotPos(slot), location);
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** @return entfernte Position oder {@code null} */
+    Location remove(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_KEY_BYTES) {
+            return null;
+        }
+        lock.writeLock().lock();
+        try {
+            int slot = probe(bytes);
+            if (slot < 0) {
+                return null;
+            }
+            Location previous = location(slot);
+            map.putInt(slotPos(slot) + S_KEY_LENGTH, REMOVED);
+            size--;
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Durchläuft alle Einträge (in Slot-Reihenfolge). */
+    void forEach(BiConsumer<String, Location> action) {
+        lock.readLock().lock();
+        try {
+            byte[] key = new byte[MAX_KEY_BYTES];
+            for (int slot = 0; slot < capacity; slot++) {
+                int pos = slotPos(slot);
+                int length = map.getInt(pos + S_KEY_LENGTH);
+                if (length > 0) {
+                    map.get(pos + S_KEY, key, 0, length);
+                    action.accept(new String(key, 0, length, StandardCharsets.UTF_8), location(slot));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Vergibt die nächste Schreibnummer; Aufrufer serialisieren Schreibvorgänge. */
+    long nextSequence() {
+        return nextSequence++;
+    }
+
+    /** Setzt die nächste Schreibnummer nach einem Neuaufbau aus dem Log. */
+    void setNextSequence(long nextSequence) {
+        this.nextSequence = nextSequence;
+    }
+
+    /** Sichert alle Einträge und markiert den Index als sauber geschlossen. */
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            writeHeader(map, capacity);
+            map.force();
+            map.putInt(H_CLEAN, 1);
+            map.force();
+            channel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return Slot-Nummer des Schlüssels oder {@code -(Einfügeposition) - 1}
+     */
+    private int probe(byte[] key) {
+        int mask = capacity - 1;
+        int slot = hash(key) & mask;
+        int insert = -1;
+        for (int i = 0; i < capacity; i++, slot = (slot + 1) & mask) {
+            int length = map.getInt(slotPos(slot) + S_KEY_LENGTH);
+            if (length == 0) {
+                return -(insert >= 0 ? insert : slot) - 1;
+            }
+            if (length == REMOVED) {
+                if (insert < 0) insert = slot;
+            } else if (length == key.length && keyEquals(slot, key)) {
+                return slot;
+            }
+        }
+        return -insert - 1;
+    }
+
+    private boolean keyEquals(int slot, byte[] key) {
+        int pos = slotPos(slot) + S_KEY;
+        for (int i = 0; i < key.length; i++) {
+            if (map.get(pos + i) != key[i]) return false;
+        }
+        return true;
+    }
+
+    private Location location(int slot) {
+        int pos = slotPos(slot);
+        return new Location(map.getInt(pos + S_SEGMENT), map.getLong(pos + S_OFFSET), map.getInt(pos + S_LENGTH),
+                map.getLong(pos + S_SEQUENCE), map.getLong(pos + S_TIMESTAMP));
+    }
+
+    private void write(int pos, Location location) {
+        map.putInt(pos + S_SEGMENT, location.segment());
+        map.putLong(pos + S_OFFSET, location.offset());
+        map.putInt(pos + S_LENGTH, location.length());
+        map.putLong(pos + S_SEQUENCE, location.sequence());
+        map.putLong(pos + S_TIMESTAMP, location.timestamp());
+    }
+
+    /** Verdoppelt die Kapazität (bzw. räumt gelöschte Slots ab) über eine neue Datei, die atomar ersetzt wird. */
+    private void resize() throws IOException {
+        int newCapacity = size + 1 > capacity / 2 ? capacity << 1 : capacity;
+        if (newCapacity > MAX_CAPACITY) {
+            throw new IllegalStateException("Log index is full");
+        }
+        Path temp = create(file, newCapacity);
+        FileChannel newChannel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer newMap = newChannel.map(FileChannel.MapMode.READ_WRITE, 0, newChannel.size());
+
+        MappedByteBuffer oldMap = map;
+        int oldCapacity = capacity;
+        map = newMap;
+        capacity = newCapacity;
+        byte[] key = new byte[MAX_KEY_BYTES];
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            int pos = HEADER_SIZE + slot * SLOT_SIZE;
+            int length = oldMap.getInt(pos + S_KEY_LENGTH);
+            if (length <= 0) continue;
+            oldMap.get(pos + S_KEY, key, 0, length);
+            byte[] bytes = Arrays.copyOf(key, length);
+            int target = -probe(bytes) - 1;
+            newMap.put(slotPos(target), oldMap, pos, SLOT_SIZE);
+        }
+        used = size;
+        writeHeader(newMap, newCapacity);
+
+        channel.close();
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = newChannel;
+    }
+
+    private void writeHeader(MappedByteBuffer target, int targetCapacity) {
+        target.putInt(0, MAGIC);
+        target.putInt(4, VERSION);
+        target.putInt(H_CAPACITY, targetCapacity);
+        target.putInt(H_SIZE, size);
+        target.putInt(H_USED, used);
+        target.putInt(H_CLEAN, 0);
+        target.putLong(H_NEXT_SEQUENCE, nextSequence);
+    }
+
+    /** Legt eine leere Indexdatei neben {@code file} an. */
+    private static Path create(Path file, int capacity) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * SLOT_SIZE);
+            map.putInt(0, MAGIC);
+            map.putInt(4, VERSION);
+            map.putInt(H_CAPACITY, capacity);
+            map.force();
+        }
+        return temp;
+    }
+
+    private static int slotPos(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private static int hash(byte[] key) {
+        int h = Arrays.hashCode(key) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
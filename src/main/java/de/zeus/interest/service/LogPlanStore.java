@@ -0,0 +1,623 @@
+/*
+ * Zeus Interest Calculator – LogPlanStore
+ * ---------------------------------------
+ * Log-strukturierter Plan-Speicher aus Segmentdateien.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.zeus.interest.dto.PaymentPlanRequest;
+import de.zeus.interest.dto.PaymentPlanResponse;
+import de.zeus.interest.dto.PlanPage;
+import de.zeus.interest.dto.WriteQueueStatistics;
+import de.zeus.interest.model.AmortizationSchedule;
+import de.zeus.interest.util.SingleFlight;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * {@link PlanStore} für sehr viele, überwiegend nur einmal geschriebene Pläne: Pläne werden an Segmentdateien
+ * ({@code segment-00000001.log}, …) angehängt statt je Plan eine Datei anzulegen. Der {@link LogIndex} bildet
+ * jede Datei-ID auf den aktuellen Datensatz ab. Aktiv mit {@code paymentplan.storage.type=log}.
+ * <pre>
+ * Datensatz: CRC32 (int) | Typ (1 = Plan, 2 = Löschmarke) | ID-Länge (byte) | Sequenz (long) | Zeit (long)
+ *            | Datenlänge (int) | ID | Daten (kodiert wie im Verzeichnis-Speicher)
+ * </pre>
+ * Überschreiben hängt einen neuen Datensatz an, Löschen eine Löschmarke. Ein Hintergrund-Thread kompaktiert
+ * abgeschlossene Segmente mit hohem Anteil überholter Datensätze: Noch gültige Datensätze werden (mit ihrer
+ * Sequenz) an das aktive Segment angehängt, danach wird das alte Segment gelöscht. Eine Löschmarke wird nur
+ * übernommen, solange ein älteres Segment noch einen überholten Datensatz ihrer ID mit kleinerer Sequenz enthält.
+ * Segmente werden beim Lesen nicht gesperrt; wird ein Segment währenddessen entfernt, liest der Aufrufer
+ * die neue Position aus dem Index.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "paymentplan.storage.type", havingValue = "log")
+public class LogPlanStore implements PlanStore {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String INDEX_FILE = "index.dat";
+
+    private static final byte PUT = 1;
+    private static final byte TOMBSTONE = 2;
+    /** CRC, Typ, ID-Länge, Sequenz, Zeit, Datenlänge */
+    private static final int RECORD_HEADER = Integer.BYTES + 2 + 2 * Long.BYTES + Integer.BYTES;
+
+    private final Path dir;
+    private final PlanEncoding encoding;
+    private final long segmentSize;
+    private final boolean fsync;
+    private final double compactionThreshold;
+    private final long compactionInterval;
+
+    private final LogIndex index;
+    private final PlanIndex ids = new PlanIndex();
+    private final SingleFlight<String, byte[]> rawReads = new SingleFlight<>();
+    private final Map<Integer, FileChannel> readers = new ConcurrentHashMap<>();
+
+    /** Noch gültige Bytes je Segment; geschützt durch {@code this} */
+    private final Map<Integer, Long> liveBytes = new HashMap<>();
+    /** Je Segment die IDs überholter Plan-Datensätze mit ihrer kleinsten Sequenz; geschützt durch {@code this} */
+    private final Map<Integer, Map<String, Long>> deadPuts = new HashMap<>();
+    /** Segmente aus der Zeit vor dem Start, deren überholte Datensätze noch nicht erfasst sind */
+    private final Set<Integer> unscanned = new TreeSet<>();
+    private FileChannel active;
+    private int activeSegment;
+    private long activePosition;
+    private ScheduledExecutorService compactor;
+
+    public LogPlanStore(
+            @Value("${paymentplan.storage.dir:payment-plans}") String storageDir,
+            @Value("${paymentplan.storage.format:JSON}") PlanFormat format,
+            @Value("${paymentplan.storage.compression.enabled:false}") boolean compress,
+            @Value("${paymentplan.storage.compression.level:6}") int compressionLevel,
+            @Value("${paymentplan.storage.log.segment-size:67108864}") long segmentSize,
+            @Value("${paymentplan.storage.log.fsync:true}") boolean fsync,
+            @Value("${paymentplan.storage.log.compaction-threshold:0.5}") double compactionThreshold,
+            @Value("${paymentplan.storage.log.compaction-interval:60}") long compactionInterval,
+            ObjectMapper mapper,
+            PlanJsonReader jsonReader,
+            AmortizationEngine engine,
+            PaymentPlanResponseMapper responseMapper) {
+        this.dir = Paths.get(storageDir, "log");
+        this.encoding = new PlanEncoding(mapper, jsonReader, engine, responseMapper, format, compress, compressionLevel);
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+        this.compactionThreshold = compactionThreshold;
+        this.compactionInterval = compactionInterval;
+        try {
+            Files.createDirectories(dir);
+            index = LogIndex.open(dir.resolve(INDEX_FILE), 1024);
+            List<Integer> segments = segments();
+            if (!index.isRecovered()) {
+                rebuild(segments);
+            }
+            index.forEach((fileId, location) -> {
+                ids.add(fileId);
+                liveBytes.merge(location.segment(), recordSize(fileId, location.length()), Long::sum);
+            });
+            unscanned.addAll(segments);
+            openActive(segments);
+            log.info("Opened plan log {} with {} plans in {} segments", dir, index.size(), segments.size());
+        } catch (IOException e) {
+            throw new RuntimeException("Could not open plan log in " + dir, e);
+        }
+    }
+
+    /** Startet die periodische Kompaktierung ({@code paymentplan.storage.log.compaction-interval} Sekunden). */
+    @PostConstruct
+    public void start() {
+        if (compactionInterval > 0) {
+            compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "plan-log-compaction");
+                thread.setDaemon(true);
+                return thread;
+            });
+            compactor.scheduleWithFixedDelay(this::compactQuietly, compactionInterval, compactionInterval,
+                    TimeUnit.SECONDS);
+        }
+    }
+
+    /** Beendet die Kompaktierung und schließt Segmente und Index (danach gilt der Index als sauber). */
+    @PreDestroy
+    public void stop() throws IOException {
+        if (compactor != null) {
+            // kein Interrupt: ein unterbrochener Kanalzugriff würde das aktive Segment schließen
+            compactor.shutdown();
+            try {
+                compactor.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            active.force(false);
+            active.close();
+            for (FileChannel reader : readers.values()) {
+                reader.close();
+            }
+            index.close();
+        }
+    }
+
+    @Override
+    public String save(AmortizationSchedule schedule) {
+        String fileId = Instant.now().toEpochMilli() + "-" + UUID.randomUUID();
+        write(fileId, schedule, "Failed to save payment plan");
+        return fileId;
+    }
+
+    @Override
+    public void saveTo(String fileId, AmortizationSchedule schedule) {
+        write(fileId, schedule, "Failed to overwrite payment plan");
+    }
+
+    @Override
+    public List<PaymentPlanResponse> load(String fileId) {
+        try {
+            return encoding.read(read(fileId));
+        } catch (NoSuchFileException e) {
+            throw new RuntimeException("Payment plan file not found: " + fileId);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load payment plan", e);
+        }
+    }
+
+    @Override
+    public PaymentPlanRequest loadRequest(String fileId) {
+        try {
+            return encoding.readRequest(read(fileId));
+        } catch (NoSuchFileException e) {
+            throw new RuntimeException("Payment plan file not found: " + fileId);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load payment plan", e);
+        }
+    }
+
+    @Override
+    public byte[] loadRaw(String fileId) throws IOException {
+        return rawReads.execute(fileId, () -> encoding.toJson(read(fileId)));
+    }
+
+    @Override
+    public Download jsonDownload(String fileId) throws IOException {
+        Stored stored = readStored(fileId);
+        return new Download(new ByteArrayResource(encoding.toJson(stored.data())), version(stored.location()));
+    }
+
+    @Override
+    public Download gzipJsonDownload(String fileId) throws IOException {
+        Stored stored = readStored(fileId);
+        return encoding.isGzipJson(stored.data())
+                ? new Download(new ByteArrayResource(stored.data()), version(stored.location()))
+                : null;
+    }
+
+    @Override
+    public Version version(String fileId) throws IOException {
+        LogIndex.Location location = index.get(fileId);
+        if (location == null) {
+            throw new NoSuchFileException(fileId);
+        }
+        return version(location);
+    }
+
+    /** Stand aus Sequenz und Länge des Datensatzes; beide bleiben beim Kompaktieren erhalten. */
+    private static Version version(LogIndex.Location location) {
+        return new Version(location.timestamp(),
+                Long.toHexString(location.sequence()) + "-" + Long.toHexString(location.length()));
+    }
+
+    @Override
+    public long storedSize(String fileId) throws IOException {
+        LogIndex.Location location = index.get(fileId);
+        if (location == null) {
+            throw new NoSuchFileException(fileId);
+        }
+        return location.length();
+    }
+
+    @Override
+    public boolean delete(String fileId) {
+        try {
+            synchronized (this) {
+                LogIndex.Location previous = index.get(fileId);
+                if (previous == null) {
+                    return false;
+                }
+                append(TOMBSTONE, fileId, index.nextSequence(), System.currentTimeMillis(), new byte[0]);
+                index.remove(fileId);
+                release(fileId, previous);
+            }
+            ids.remove(fileId);
+            return true;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to delete payment plan", e);
+        }
+    }
+
+    @Override
+    public List<String> listAll() {
+        return ids.all();
+    }
+
+    @Override
+    public PlanPage list(String cursor, int limit) {
+        return ids.page(cursor, limit);
+    }
+
+    @Override
+    public WriteQueueStatistics getWriteQueueStatistics() {
+        return new WriteQueueStatistics(false, 0, 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Kompaktiert alle abgeschlossenen Segmente, deren Anteil überholter Bytes die Schwelle
+     * {@code paymentplan.storage.log.compaction-threshold} erreicht.
+     *
+     * @return Anzahl entfernter Segmente
+     */
+    public int compact() throws IOException {
+        for (int segment : List.copyOf(unscanned)) {
+            collectDeadPuts(segment);
+        }
+        int compacted = 0;
+        for (int segment : segments()) {
+            long size;
+            long live;
+            synchronized (this) {
+                if (segment == activeSegment) continue;
+                size = Files.size(segmentPath(segment));
+                live = liveBytes.getOrDefault(segment, 0L);
+            }
+            if (size > 0 && 1.0 - (double) live / size >= compactionThreshold) {
+                compactSegment(segment);
+                compacted++;
+            }
+        }
+        return compacted;
+    }
+
+    private void compactQuietly() {
+        try {
+            int compacted = compact();
+            if (compacted > 0) {
+                log.info("Compacted {} plan log segments", compacted);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Compaction of plan log {} failed", dir, e);
+        }
+    }
+
+    /**
+     * Erfasst die überholten Plan-Datensätze eines Segments, das schon vor dem Start bestand. Danach hält
+     * {@link #release(String, LogIndex.Location)} {@link #deadPuts} aktuell.
+     */
+    private void collectDeadPuts(int segment) throws IOException {
+        scan(segment, (type, fileId, sequence, timestamp, offset, data) -> {
+            if (type != PUT) return;
+            synchronized (this) {
+                LogIndex.Location current = index.get(fileId);
+                if (current == null || current.segment() != segment || current.offset() != offset) {
+                    deadPuts.computeIfAbsent(segment, s -> new HashMap<>()).merge(fileId, sequence, Math::min);
+                }
+            }
+        });
+        synchronized (this) {
+            unscanned.remove(segment);
+        }
+    }
+
+    /** Übernimmt die gültigen Datensätze eines Segments in das aktive Segment und löscht es. */
+    private void compactSegment(int segment) throws IOException {
+        long valid = scan(segment, (type, fileId, sequence, timestamp, offset, data) -> {
+            synchronized (this) {
+                LogIndex.Location current = index.get(fileId);
+                if (type == PUT && current != null && current.segment() == segment && current.offset() == offset) {
+                    index.put(fileId, append(PUT, fileId, sequence, timestamp, data));
+                    release(fileId, current);
+                } else if (type == TOMBSTONE && current == null && shadowsOlderPut(fileId, sequence, segment)) {
+                    append(TOMBSTONE, fileId, sequence, timestamp, data);
+                }
+            }
+        });
+        if (valid < Files.size(segmentPath(segment))) {
+            log.warn("Keeping damaged plan log segment {} (valid up to offset {})", segmentPath(segment), valid);
+            return;
+        }
+        synchronized (this) {
+            active.force(false);
+            liveBytes.remove(segment);
+            deadPuts.remove(segment);
+            FileChannel reader = readers.remove(segment);
+            if (reader != null) {
+                reader.close();
+            }
+            Files.deleteIfExists(segmentPath(segment));
+        }
+    }
+
+    private void write(String fileId, AmortizationSchedule schedule, String failure) {
+        try {
+            byte[] data = encoding.encode(schedule);
+            synchronized (this) {
+                LogIndex.Location location = append(PUT, fileId, index.nextSequence(), System.currentTimeMillis(), data);
+                LogIndex.Location previous = index.put(fileId, location);
+                if (previous != null) {
+                    release(fileId, previous);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(failure, e);
+        }
+        ids.add(fileId);
+    }
+
+    /** Hängt einen Datensatz an das aktive Segment an (beginnt bei Bedarf ein neues). Aufrufer hält {@code this}. */
+    private LogIndex.Location append(byte type, String fileId, long sequence, long timestamp, byte[] data)
+            throws IOException {
+        byte[] key = fileId.getBytes(StandardCharsets.UTF_8);
+        if (key.length > LogIndex.MAX_KEY_BYTES) {
+            throw new IllegalArgumentException("File id too long: " + fileId);
+        }
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + key.length + data.length);
+        record.putInt(0)
+                .put(type)
+                .put((byte) key.length)
+                .putLong(sequence)
+                .putLong(timestamp)
+                .putInt(data.length)
+                .put(key)
+                .put(data);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), Integer.BYTES, record.capacity() - Integer.BYTES);
+        record.putInt(0, (int) crc.getValue());
+        record.flip();
+
+        if (activePosition > 0 && activePosition + record.remaining() > segmentSize) {
+            active.force(false);
+            active.close();
+            activeSegment++;
+            active = FileChannel.open(segmentPath(activeSegment), StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE);
+            activePosition = 0;
+        }
+        long offset = activePosition;
+        while (record.hasRemaining()) {
+            activePosition += active.write(record, activePosition);
+        }
+        if (fsync) {
+            active.force(false);
+        }
+        liveBytes.merge(activeSegment, type == PUT ? activePosition - offset : 0L, Long::sum);
+        return new LogIndex.Location(activeSegment, offset, data.length, sequence, timestamp);
+    }
+
+    /** Bucht einen überholten Datensatz als ungültig aus. Aufrufer hält {@code this}. */
+    private void release(String fileId, LogIndex.Location location) {
+        liveBytes.computeIfPresent(location.segment(), (segment, live) -> live - recordSize(fileId, location.length()));
+        deadPuts.computeIfAbsent(location.segment(), segment -> new HashMap<>())
+                .merge(fileId, location.sequence(), Math::min);
+    }
+
+    /**
+     * Ob eine Löschmarke beim Kompaktieren erhalten bleiben muss: Nur solange ein anderes Segment noch einen
+     * überholten Plan-Datensatz der ID mit kleinerer Sequenz enthält, würde er ohne sie beim Neuaufbau des
+     * Index wieder gültig. Aufrufer hält {@code this}.
+     */
+    private boolean shadowsOlderPut(String fileId, long sequence, int segment) {
+        if (!unscanned.isEmpty() && unscanned.iterator().next() < segment) {
+            return true;
+        }
+        for (Map.Entry<Integer, Map<String, Long>> entry : deadPuts.entrySet()) {
+            Long dead = entry.getKey() != segment ? entry.getValue().get(fileId) : null;
+            if (dead != null && dead < sequence) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Gelesener Datensatz mit der Position, von der er stammt */
+    private record Stored(LogIndex.Location location, byte[] data) { }
+
+    /** Liest die Nutzdaten des aktuellen Datensatzes (CRC-geprüft), ohne Schreibvorgänge zu blockieren. */
+    private byte[] read(String fileId) throws IOException {
+        return readStored(fileId).data();
+    }
+
+    private Stored readStored(String fileId) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            LogIndex.Location location = index.get(fileId);
+            if (location == null) {
+                throw new NoSuchFileException(fileId);
+            }
+            try {
+                return new Stored(location, readRecord(location, fileId));
+            } catch (ClosedChannelException | NoSuchFileException e) {
+                // Segment wurde währenddessen kompaktiert (oder der Kanal durch einen Interrupt geschlossen)
+                readers.values().removeIf(channel -> !channel.isOpen());
+                if (attempt > 0) throw e;
+            }
+        }
+    }
+
+    private byte[] readRecord(LogIndex.Location location, String fileId) throws IOException {
+        int keyLength = fileId.getBytes(StandardCharsets.UTF_8).length;
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + keyLength + location.length());
+        FileChannel channel = reader(location.segment());
+        long position = location.offset();
+        while (record.hasRemaining()) {
+            int read = channel.read(record, position + record.position());
+            if (read < 0) throw new EOFException("Truncated plan log record: " + fileId);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), Integer.BYTES, record.capacity() - Integer.BYTES);
+        if (record.getInt(0) != (int) crc.getValue()) {
+            throw new IOException("Corrupt plan log record: " + fileId);
+        }
+        return Arrays.copyOfRange(record.array(), RECORD_HEADER + keyLength, record.capacity());
+    }
+
+    /**
+     * Lesekanal eines Segments. Geöffnet wird unter demselben Monitor, unter dem {@link #compactSegment(int)}
+     * Kanal und Datei eines Segments entfernt: Ein Kanal landet so nie nach dem Löschen in {@link #readers}.
+     */
+    private FileChannel reader(int segment) throws IOException {
+        FileChannel channel = readers.get(segment);
+        if (channel != null) {
+            return channel;
+        }
+        synchronized (this) {
+            channel = readers.get(segment);
+            if (channel == null) {
+                channel = FileChannel.open(segmentPath(segment), StandardOpenOption.READ);
+                readers.put(segment, channel);
+            }
+            return channel;
+        }
+    }
+
+    /**
+     * Baut den Index aus allen Segmenten auf: je ID gilt der Datensatz mit der höchsten Sequenz.
+     * Ein abgeschnittener oder beschädigter Rest (Absturz beim Schreiben) wird abgeschnitten.
+     */
+    private void rebuild(List<Integer> segments) throws IOException {
+        log.info("Rebuilding plan log index from {} segments", segments.size());
+        Map<String, Long> deleted = new HashMap<>();
+        long[] maxSequence = {-1};
+        for (int segment : segments) {
+            long valid = scan(segment, (type, fileId, sequence, timestamp, offset, data) -> {
+                maxSequence[0] = Math.max(maxSequence[0], sequence);
+                LogIndex.Location current = index.get(fileId);
+                if (current != null && current.sequence() > sequence
+                        || deleted.getOrDefault(fileId, -1L) > sequence) {
+                    return;
+                }
+                if (type == PUT) {
+                    index.put(fileId, new LogIndex.Location(segment, offset, data.length, sequence, timestamp));
+                } else {
+                    index.remove(fileId);
+                    deleted.put(fileId, sequence);
+                }
+            });
+            Path path = segmentPath(segment);
+            if (valid < Files.size(path)) {
+                log.warn("Truncating damaged tail of plan log segment {} at offset {}", path, valid);
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    channel.truncate(valid);
+                }
+            }
+        }
+        index.setNextSequence(maxSequence[0] + 1);
+    }
+
+    @FunctionalInterface
+    private interface RecordVisitor {
+        void accept(byte type, String fileId, long sequence, long timestamp, long offset, byte[] data)
+                throws IOException;
+    }
+
+    /**
+     * Liest ein Segment sequenziell bis zum ersten unvollständigen oder beschädigten Datensatz.
+     *
+     * @return Länge des gültigen Anfangs
+     */
+    private long scan(int segment, RecordVisitor visitor) throws IOException {
+        long offset = 0;
+        long size = Files.size(segmentPath(segment));
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Channels.newInputStream(FileChannel.open(segmentPath(segment), StandardOpenOption.READ)), 1 << 16))) {
+            byte[] header = new byte[RECORD_HEADER];
+            while (true) {
+                try {
+                    in.readFully(header);
+                } catch (EOFException e) {
+                    return offset;
+                }
+                ByteBuffer fields = ByteBuffer.wrap(header);
+                int storedCrc = fields.getInt();
+                byte type = fields.get();
+                int keyLength = fields.get();
+                long sequence = fields.getLong();
+                long timestamp = fields.getLong();
+                int dataLength = fields.getInt();
+                if (type != PUT && type != TOMBSTONE || keyLength <= 0 || keyLength > LogIndex.MAX_KEY_BYTES
+                        || dataLength < 0 || offset + RECORD_HEADER + keyLength + dataLength > size) {
+                    return offset;
+                }
+                byte[] key = new byte[keyLength];
+                byte[] data = new byte[dataLength];
+                in.readFully(key);
+                in.readFully(data);
+                CRC32 crc = new CRC32();
+                crc.update(header, Integer.BYTES, RECORD_HEADER - Integer.BYTES);
+                crc.update(key);
+                crc.update(data);
+                if (storedCrc != (int) crc.getValue()) {
+                    return offset;
+                }
+                visitor.accept(type, new String(key, StandardCharsets.UTF_8), sequence, timestamp, offset, data);
+                offset += RECORD_HEADER + keyLength + dataLength;
+            }
+        }
+    }
+
+    /** Setzt das letzte Segment fort oder beginnt das erste. */
+    private void openActive(List<Integer> segments) throws IOException {
+        activeSegment = segments.isEmpty() ? 1 : segments.get(segments.size() - 1);
+        active = FileChannel.open(segmentPath(activeSegment), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        activePosition = active.size();
+    }
+
+    /** Vorhandene Segmentnummern, aufsteigend */
+    private List<Integer> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Integer.parseInt(name, SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length(), 10))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(int segment) {
+        return dir.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    private static long recordSize(String fileId, int dataLength) {
+        return RECORD_HEADER + fileId.getBytes(StandardCharsets.UTF_8).length + dataLength;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Zeus Interest Calculator – OpenFileResource
+ * -------------------------------------------
+ * Resource über eine bereits geöffnete Datei.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Resource über einen geöffneten Dateikanal: Länge und Inhalt stammen aus derselben Datei, auch wenn ihr Pfad
+ * währenddessen durch eine Neuschreibung (Umbenennung) neu belegt wird. Jeder {@link #getInputStream()} liest
+ * unabhängig ab dem Anfang (Range-Anfragen öffnen mehrere); erst {@link #close()} schließt den Kanal.
+ */
+final class OpenFileResource extends AbstractResource implements Closeable {
+
+    private final FileChannel channel;
+    private final long size;
+    private final String description;
+
+    OpenFileResource(FileChannel channel, long size, String description) {
+        this.channel = channel;
+        this.size = size;
+        this.description = description;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return new InputStream() {
+            private long position;
+
+            @Override
+            public int read() throws IOException {
+                byte[] one = new byte[1];
+                return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (len == 0) return 0;
+                if (position >= size) return -1;
+                int read = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, size - position)), position);
+                if (read < 0) return -1;
+                position += read;
+                return read;
+            }
+
+            @Override
+            public long skip(long n) {
+                long skipped = Math.max(0, Math.min(n, size - position));
+                position += skipped;
+                return skipped;
+            }
+
+            @Override
+            public int available() {
+                return (int) Math.min(Integer.MAX_VALUE, size - position);
+            }
+        };
+    }
+
+    @Override
+    public long contentLength() {
+        return size;
+    }
+
+    @Override
+    public boolean exists() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
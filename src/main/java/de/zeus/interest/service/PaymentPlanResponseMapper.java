@@ -0,0 +1,172 @@
+/*
+ * Zeus Interest Calculator – PaymentPlanResponseMapper
+ * ----------------------------------------------------
+ * Überführt berechnete Zahlungspläne in Anzeige-DTOs.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+import de.zeus.interest.dto.PaymentPlanRequest;
+import de.zeus.interest.dto.PaymentPlanResponse;
+import de.zeus.interest.dto.PlanMetadata;
+import de.zeus.interest.dto.ScheduleResponse;
+import de.zeus.interest.dto.ScheduleRow;
+import de.zeus.interest.model.AmortizationSchedule;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormatSymbols;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Adapter vom spaltenorientierten {@link AmortizationSchedule} zu den Ausgabe-DTOs:
+ * formatierte {@link PaymentPlanResponse}-Zeilen für die Oberfläche und numerische
+ * {@link ScheduleResponse} für die JSON-Schnittstelle, dazu die {@link PlanMetadata} gespeicherter Pläne.
+ */
+@Component
+public class PaymentPlanResponseMapper {
+
+    /**
+     * Erzeugt für jede berechnete Periode eine formatierte Antwortzeile.
+     *
+     * @param schedule Ergebnis der Engine
+     * @return Liste der Zeilen in Monatsreihenfolge
+     */
+    public List<PaymentPlanResponse> toResponses(AmortizationSchedule schedule) {
+        Locale loc = Locale.getDefault();
+        DateTimeFormatter fmt = DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM).withLocale(loc);
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT));
+
+        List<PaymentPlanResponse> list = new ArrayList<>(schedule.size());
+        for (int row = 0; row < schedule.size(); row++) {
+            list.add(toResponse(schedule, row, fmt, symbols));
+        }
+        return list;
+    }
+
+    /**
+     * Erzeugt die numerische Antwort der JSON-Schnittstelle (ohne jede String-Formatierung).
+     *
+     * @param schedule Ergebnis der Engine
+     * @return typisierter Zahlungsplan
+     */
+    public ScheduleResponse toScheduleResponse(AmortizationSchedule schedule) {
+        List<ScheduleRow> rows = new ArrayList<>(schedule.size());
+        for (int row = 0; row < schedule.size(); row++) {
+            ScheduleRow r = new ScheduleRow();
+            r.setRunNumber(schedule.getRunNumber(row));
+            r.setRepaymentDate(schedule.getRepaymentDate(row));
+            r.setTimeInDays(schedule.getTimeInDays(row));
+            r.setInitialValue(BigDecimal.valueOf(schedule.getInitialValue(row), 2));
+            r.setInterestAmount(BigDecimal.valueOf(schedule.getInterestAmount(row), 2));
+            r.setRegularPaymentAmount(BigDecimal.valueOf(schedule.getRegularPaymentAmount(row), 2));
+            r.setAmountChangeValue(BigDecimal.valueOf(schedule.getAmountChangeValue(row), 2));
+            r.setExtraPayment(BigDecimal.valueOf(schedule.getExtraPayment(row), 2));
+            r.setFutureValue(BigDecimal.valueOf(schedule.getFutureValue(row), 2));
+            r.setLastDayOfYear(schedule.isLastDayOfYear(row));
+            r.setLastRun(schedule.isLastRun(row));
+            rows.add(r);
+        }
+
+        ScheduleResponse response = new ScheduleResponse();
+        response.setMode(schedule.getMode());
+        response.setArithmetic(schedule.getArithmetic());
+        response.setTotalRuns(schedule.getTotalRuns());
+        response.setPeriods(schedule.size());
+        response.setEffectiveRate(EffectiveRateCalculator.effectiveRate(schedule));
+        response.setRows(rows);
+        return response;
+    }
+
+    /**
+     * Fasst einen Plan für den Metadaten-Index zusammen. Das Kapital stammt aus der ersten Periode,
+     * der Zinssatz aus der Eingabe (sofern der Plan sie noch trägt).
+     *
+     * @param fileId    Datei-ID des Plans
+     * @param schedule  Ergebnis der Engine
+     * @param createdAt Zeitpunkt der ersten Speicherung
+     * @return Kennzahlen des Plans
+     */
+    public PlanMetadata toMetadata(String fileId, AmortizationSchedule schedule, Instant createdAt) {
+        PaymentPlanRequest request = schedule.getRequest();
+        int last = schedule.size() - 1;
+        long interest = 0;
+        for (int row = 0; row <= last; row++) {
+            interest += schedule.getInterestAmount(row);
+        }
+        BigDecimal principal = last >= 0
+                ? BigDecimal.valueOf(schedule.getInitialValue(0), 2)
+                : request != null ? BigDecimal.valueOf(request.getInitialValue()) : null;
+        return new PlanMetadata(
+                fileId,
+                schedule.getMode(),
+                principal,
+                request != null ? request.getInterestRate() : null,
+                schedule.size(),
+                BigDecimal.valueOf(interest, 2),
+                last >= 0 ? schedule.getRepaymentDate(last) : null,
+                createdAt);
+    }
+
+    /**
+     * Erzeugt die formatierte Antwortzeile für eine einzelne Periode.
+     *
+     * @param schedule Ergebnis der Engine
+     * @param row      Zeilenindex (0-basiert)
+     * @param fmt      Datumsformat
+     * @param symbols  Zahlensymbole (Dezimaltrenner) der Format-Locale
+     * @return formatierte Zeile
+     */
+    public PaymentPlanResponse toResponse(AmortizationSchedule schedule, int row,
+                                          DateTimeFormatter fmt, DecimalFormatSymbols symbols) {
+        PaymentPlanResponse r = new PaymentPlanResponse();
+        r.setInitialValue(formatCents(schedule.getInitialValue(row), symbols));
+        r.setInterestAmount(formatCents(schedule.getInterestAmount(row), symbols));
+        // Veränderung und neuer Stand werden ohne Vorzeichen angezeigt
+        r.setAmountChangeValue(formatCents(Math.abs(schedule.getAmountChangeValue(row)), symbols));
+        r.setFutureValue(formatCents(Math.abs(schedule.getFutureValue(row)), symbols));
+        r.setRegularPaymentAmount(formatCents(schedule.getRegularPaymentAmount(row), symbols));
+        r.setRunNumber(String.valueOf(schedule.getRunNumber(row)));
+        r.setTotalRuns(String.valueOf(schedule.getTotalRuns()));
+        r.setTimeInDays(String.valueOf(schedule.getTimeInDays(row)));
+        r.setRepaymentDate(schedule.getRepaymentDate(row).format(fmt));
+        r.setIsGroup(String.valueOf(schedule.isLastDayOfYear(row)));
+        r.setIsLastRun(String.valueOf(schedule.isLastRun(row)));
+        r.setYear(schedule.getRepaymentDate(row).getYear());
+        r.setExtraPayment(formatCents(schedule.getExtraPayment(row), symbols));
+        return r;
+    }
+
+    /**
+     * Formatiert einen Cent-Betrag wie {@code String.format("%.2f", cents / 100.0)},
+     * jedoch ohne Formatter-Parsing und Gleitkomma-Umweg.
+     */
+    static String formatCents(long cents, DecimalFormatSymbols symbols) {
+        long abs = Math.abs(cents);
+        long fraction = abs % 100;
+        StringBuilder sb = new StringBuilder(20);
+        if (cents < 0) sb.append('-');
+        sb.append(abs / 100).append(symbols.getDecimalSeparator());
+        if (fraction < 10) sb.append('0');
+        sb.append(fraction);
+
+        char zero = symbols.getZeroDigit();
+        if (zero != '0') {
+            for (int i = 0; i < sb.length(); i++) {
+                char c = sb.charAt(i);
+                if (c >= '0' && c <= '9') sb.setCharAt(i, (char) (zero + (c - '0')));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Zeus Interest Calculator – PaymentPlanService
+ * ---------------------------------------------
+ * Gemeinsamer Einstieg für Validierung und Berechnung von Zahlungsplänen.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+import de.zeus.interest.dto.BalanceResult;
+import de.zeus.interest.dto.CacheStatistics;
+import de.zeus.interest.dto.PaymentPlanRequest;
+import de.zeus.interest.dto.PaymentPlanResponse;
+import de.zeus.interest.dto.PlanSummary;
+import de.zeus.interest.model.AmortizationSchedule;
+import de.zeus.interest.model.CalculationMode;
+import de.zeus.interest.model.PeriodSink;
+import de.zeus.interest.util.InterestUtils;
+import de.zeus.interest.util.SingleFlight;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.MessageSource;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Validiert Anfragen und berechnet Zahlungspläne über die {@link AmortizationEngine}.
+ * Wird von Web-Controller, REST-Schnittstelle und Batch-Verarbeitung gemeinsam genutzt.
+ */
+@Service
+@RequiredArgsConstructor
+public class PaymentPlanService {
+
+    /** Obergrenze der Laufzeit (100 Jahre), schützt vor übergroßen Plänen */
+    public static final int MAX_PAYMENT_MONTHS = 1200;
+
+    private final AmortizationEngine engine;
+    private final CalculationCache cache;
+    private final PaymentPlanResponseMapper responseMapper;
+    private final MessageSource messageSource;
+
+    /** Bündelt gleichzeitige Berechnungen derselben Anfrage */
+    private final SingleFlight<CalculationKey, AmortizationSchedule> inFlight = new SingleFlight<>();
+
+    /**
+     * Berechnet den Zahlungsplan (bzw. liefert ihn aus dem {@link CalculationCache}).
+     *
+     * @param req validierte Anfrage
+     * @return Spaltenorientierter Zahlungsplan, darf nicht verändert werden
+     */
+    public AmortizationSchedule calculate(PaymentPlanRequest req) {
+        return calculateCached(req, null, false);
+    }
+
+    /**
+     * Berechnet den Zahlungsplan und bereitet ihn für die Anzeige auf.
+     *
+     * @param req validierte Anfrage
+     * @return formatierte Zeilen
+     */
+    public List<PaymentPlanResponse> calculateRows(PaymentPlanRequest req) {
+        return toRows(calculate(req));
+    }
+
+    /**
+     * Prüft die Eingaben (Zinssatz, Daten, Laufzeit).
+     *
+     * @param request Anfrage
+     * @throws IllegalArgumentException mit lokalisierter Meldung bei ungültigen Eingaben
+     */
+    public void validateRequest(PaymentPlanRequest request) {
+        if (request.getInterestRate() < 0 || request.getInterestRate() > 100) {
+            throw new IllegalArgumentException(
+                    messageSource.getMessage("validation.interestRate.range", null, Locale.getDefault()));
+        }
+        if (request.getContractDate() == null || request.getFirstPaymentDate() == null) {
+            throw new IllegalArgumentException(
+                    messageSource.getMessage("validation.dates.required", null, Locale.getDefault()));
+        }
+        if (request.getPaymentMonths() == null
+                || request.getPaymentMonths() < 1 || request.getPaymentMonths() > MAX_PAYMENT_MONTHS) {
+            throw new IllegalArgumentException(messageSource.getMessage(
+                    "validation.paymentMonths.range", new Object[]{String.valueOf(MAX_PAYMENT_MONTHS)}, Locale.getDefault()));
+        }
+    }
+
+    /**
+     * Berechnet den Zahlungsplan und prüft bei Krediten im selben Durchlauf, dass keine Sondertilgung
+     * die Restschuld des jeweiligen Monats übersteigt. Liegt ein früherer Plan mit denselben Eingaben
+     * (abgesehen von Sonderzahlungen) vor, wird ab dessen letztem passenden Checkpoint weitergerechnet.
+     *
+     * @param req      validierte Anfrage
+     * @param previous früherer Plan (z. B. aus der Session) oder {@code null}
+     * @return Zahlungsplan, darf nicht verändert werden
+     * @throws IllegalArgumentException mit lokalisierter Meldung, falls eine Sondertilgung zu hoch ist
+     */
+    public AmortizationSchedule calculateChecked(PaymentPlanRequest req, AmortizationSchedule previous) {
+        AmortizationSchedule schedule = calculateCached(req, previous, true);
+        if (schedule.getExtraViolationRun() > 0) {
+            throw extraPaymentsTooHigh(req, schedule.getExtraViolationDebt());
+        }
+        return schedule;
+    }
+
+    /**
+     * Berechnet nur die Kennzahlen des Plans: Die Monate laufen durch einen {@link SummaryReducer}, es werden
+     * weder Zeilen noch formatierte Antworten angelegt. Sondertilgungen werden wie bei
+     * {@link #calculateChecked} geprüft.
+     *
+     * @param req validierte Anfrage
+     * @return Summen, identisch mit denen über die Zeilen des vollständigen Plans
+     * @throws IllegalArgumentException mit lokalisierter Meldung, falls eine Sondertilgung zu hoch ist
+     */
+    public PlanSummary summarize(PaymentPlanRequest req) {
+        SummaryReducer reducer = new SummaryReducer();
+        engine.stream(req, reducer, true);
+        if (reducer.getExtraViolationRun() > 0) {
+            throw extraPaymentsTooHigh(req, reducer.getExtraViolationDebt());
+        }
+        return reducer.toSummary(req.getMode(), req.getArithmetic());
+    }
+
+    /**
+     * Wie {@link #summarize}, meldet eine zu hohe Sondertilgung aber mit {@code null} statt einer Ausnahme –
+     * für Suchverfahren, die einen solchen Plan nur als ungültigen Kandidaten verwerfen.
+     *
+     * @param req validierte Anfrage
+     * @return Summen oder {@code null}, falls eine Sondertilgung die Restschuld übersteigt
+     */
+    PlanSummary summarizeIfValid(PaymentPlanRequest req) {
+        SummaryReducer reducer = new SummaryReducer();
+        engine.stream(req, reducer, true);
+        return reducer.getExtraViolationRun() > 0 ? null : reducer.toSummary(req.getMode(), req.getArithmetic());
+    }
+
+    /**
+     * Stand (Restschuld bzw. Guthaben) nach einzelnen Monaten, z. B. zum Ende der Zinsbindung.
+     * <p>
+     * Standardmäßig aus der geschlossenen Form ({@link AnnuityFormula}): O(1) je Monat zuzüglich einer Addition
+     * je Sonderzahlung bis dahin, unabhängig von der Laufzeit. Die Engine rundet die Zinsen jedes Monats auf Cent;
+     * jeder dieser Rundungsfehler (höchstens ½ Cent, bei gerichteter {@code paymentplan.cents.rounding} unter
+     * 1 Cent) wird danach mit dem Monatszins {@code i} fortgeschrieben. Nach Monat {@code n} weicht der Wert daher
+     * um bis zu {@code ½ Cent · ((1 + i)^n − 1) / i} ab – die Abweichung wächst mit Laufzeit und Zins, z. B. bis
+     * 0,73 € nach 10 Jahren zu 3,9 % und bis 5,02 € nach 30 Jahren zu 6 %. Um die Tilgung herum gilt das nicht: Ist die Restschuld
+     * zu Monatsbeginn kleiner als die Rate, zahlt die Engine nur diese und lässt die Zinsen des Monats stehen; der
+     * Plan läuft dann einen Monat länger als die Formel. Kreditmonate ab diesem Punkt werden deshalb – wie bei
+     * {@code exact} alle Monate – aus einer Simulation bis zum spätesten dieser Monate bestimmt (ohne Zeilen
+     * anzulegen).
+     *
+     * @param req    validierte Anfrage
+     * @param months Monatsnummern zwischen 1 und der Laufzeit
+     * @param exact  true = centgenau aus der Simulation
+     * @return ein Ergebnis je Monat, in Reihenfolge der Anfrage
+     * @throws IllegalArgumentException bei ungültigem Monat oder zu hoher Sondertilgung (sofern simuliert)
+     */
+    public List<BalanceResult> balancesAt(PaymentPlanRequest req, List<Integer> months, boolean exact) {
+        int last = 0;
+        for (Integer month : months) {
+            if (month == null || month < 1 || month > req.getPaymentMonths()) {
+                throw new IllegalArgumentException(messageSource.getMessage(
+                        "validation.month.range", new Object[]{String.valueOf(req.getPaymentMonths())},
+                        Locale.getDefault()));
+            }
+            last = Math.max(last, month);
+        }
+        boolean loan = req.getMode() == CalculationMode.LOAN;
+        List<BalanceResult> results = new ArrayList<>(months.size());
+
+        if (exact) {
+            BalanceRecorder recorder = simulateBalances(req, last);
+            for (int month : months) {
+                results.add(recorder.result(month, loan));
+            }
+            return results;
+        }
+
+        AnnuityFormula formula = new AnnuityFormula(req, 0);
+        long[] cents = new long[months.size()];
+        boolean[] nearPayoff = new boolean[months.size()];
+        int settled = 0;
+        for (int i = 0; i < cents.length; i++) {
+            int month = months.get(i);
+            double balance = formula.balance(
+                    req.getInitialValue(), req.getInterestRate(), req.getPaymentAmount(), month);
+            cents[i] = InterestUtils.toCents(balance);
+            if (loan) {
+                double opening = month == 1 ? req.getInitialValue() : formula.balance(
+                        req.getInitialValue(), req.getInterestRate(), req.getPaymentAmount(), month - 1);
+                nearPayoff[i] = cents[i] <= 0 || opening < req.getPaymentAmount();
+                if (nearPayoff[i]) settled = Math.max(settled, month);
+            }
+        }
+        BalanceRecorder recorder = settled > 0 ? simulateBalances(req, settled) : null;
+        for (int i = 0; i < cents.length; i++) {
+            int month = months.get(i);
+            results.add(nearPayoff[i]
+                    ? recorder.result(month, true)
+                    : new BalanceResult(month, BigDecimal.valueOf(cents[i], 2), false, false));
+        }
+        return results;
+    }
+
+    /** Rechnet den Plan bis einschließlich {@code last} durch und merkt sich den Stand je Monat. */
+    private BalanceRecorder simulateBalances(PaymentPlanRequest req, int last) {
+        PaymentPlanRequest prefix = req.copy();
+        prefix.setPaymentMonths(last);
+        BalanceRecorder recorder = new BalanceRecorder(last);
+        engine.stream(prefix, recorder, true);
+        if (recorder.violationRun > 0) {
+            throw extraPaymentsTooHigh(req, recorder.violationDebt);
+        }
+        return recorder;
+    }
+
+    /** Zähler des Ergebnis-Caches */
+    public CacheStatistics getCacheStatistics() {
+        return cache.getStatistics();
+    }
+
+    /**
+     * Bereitet einen berechneten Plan für die Anzeige auf.
+     *
+     * @param schedule Ergebnis der Engine
+     * @return formatierte Zeilen
+     */
+    public List<PaymentPlanResponse> toRows(AmortizationSchedule schedule) {
+        return responseMapper.toResponses(schedule);
+    }
+
+    private IllegalArgumentException extraPaymentsTooHigh(PaymentPlanRequest req, long debtCents) {
+        double totalExtra = req.getExtraPayments().values().stream()
+                .filter(Objects::nonNull).mapToDouble(Double::doubleValue).sum();
+        return new IllegalArgumentException(messageSource.getMessage(
+                "validation.extraPayments.tooHigh",
+                new Object[]{
+                        String.format("%.2f", totalExtra),
+                        String.format("%.2f", debtCents / 100.0)
+                },
+                Locale.getDefault()));
+    }
+
+    private AmortizationSchedule calculateCached(PaymentPlanRequest req, AmortizationSchedule previous,
+                                                 boolean checked) {
+        CalculationKey key = CalculationKey.of(req, checked);
+        AmortizationSchedule schedule = cache.get(key);
+        if (schedule != null) {
+            return schedule;
+        }
+        return inFlight.execute(key, () -> {
+            AmortizationSchedule calculated = engine.calculate(req, previous, checked);
+            cache.put(key, calculated);
+            return calculated;
+        });
+    }
+
+    /** Merkt sich den Stand nach jedem Monat (Index = Monatsnummer). */
+    private static final class BalanceRecorder implements PeriodSink {
+        private final long[] balances;
+        private int periods;
+        private int violationRun;
+        private long violationDebt;
+
+        private BalanceRecorder(int months) {
+            this.balances = new long[months + 1];
+        }
+
+        @Override
+        public void period(long initialCents, long futureCents, long interestCents, long paymentCents,
+                           long changeCents, long extraCents, int days, int repaymentEpochDay, boolean last) {
+            balances[++periods] = futureCents;
+        }
+
+        @Override
+        public void extraViolation(int run, long debtCents) {
+            violationRun = run;
+            violationDebt = debtCents;
+        }
+
+        /** Stand nach {@code month}; nach vorzeitiger Tilgung folgen keine Perioden mehr. */
+        private BalanceResult result(int month, boolean loan) {
+            boolean paidOff = loan && (month > periods || balances[month] <= 0);
+            return new BalanceResult(month, BigDecimal.valueOf(paidOff ? 0 : balances[month], 2), paidOff, true);
+        }
+    }
+}
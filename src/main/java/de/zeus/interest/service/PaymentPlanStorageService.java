@@ -12,119 +12,753 @@
 package de.zeus.interest.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import de.zeus.interest.dto.PaymentPlanRequest;
 import de.zeus.interest.dto.PaymentPlanResponse;
+import de.zeus.interest.dto.PlanMetadata;
+import de.zeus.interest.dto.PlanPage;
+import de.zeus.interest.dto.PlanQuery;
+import de.zeus.interest.dto.PlanQueryResult;
+import de.zeus.interest.dto.WriteQueueStatistics;
+import de.zeus.interest.model.AmortizationSchedule;
+import de.zeus.interest.util.SingleFlight;
+import de.zeus.interest.util.StripedLocks;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.zip.GZIPInputStream;
 
 /**
- * Service zur Speicherung und Wiederherstellung von Zahlungsplänen.
- * Die Pläne werden als JSON-Dateien im konfigurierbaren Verzeichnis gespeichert.
+ * Service zur Speicherung und Wiederherstellung von Zahlungsplänen (Standard-{@link PlanStore}).
+ * Die Pläne werden als einzelne Dateien im konfigurierbaren Verzeichnis gespeichert.
+ * <p>
+ * Die Plan-IDs werden zusätzlich in einem {@link PlanIndex} gehalten: einmal beim Start aufgebaut,
+ * bei Speichern/Löschen fortgeschrieben und per {@link WatchService} mit externen Änderungen abgeglichen.
+ * Die Ablage auf der Platte (flach oder in Hash-Unterverzeichnissen) bestimmt das {@link StorageLayout},
+ * das Dateiformat neuer Pläne der konfigurierte {@link PlanCodec}. Beim Lesen wird das Format am Dateianfang
+ * erkannt, sodass JSON-, Binär- und Eingabeformat nebeneinander existieren können. Optional werden neue Dateien
+ * GZIP-komprimiert geschrieben; auch das wird beim Lesen am Dateianfang erkannt.
+ * <p>
+ * Im Write-Behind-Modus ({@code paymentplan.storage.write-behind.enabled}) kehren Speichervorgänge sofort zurück;
+ * die kodierten Bytes sind bis zum Schreiben durch die {@link WriteBehindQueue} aus dem Speicher lesbar.
+ * <p>
+ * Plan-Dateien werden nie an Ort und Stelle überschrieben, sondern als Temp-Datei geschrieben und atomar
+ * umbenannt; Leser sehen so immer eine vollständige Fassung und sperren nicht. Schreiben und Löschen derselben
+ * ID sind über {@link StripedLocks} (nach Hash der ID) gegeneinander serialisiert.
+ * <p>
+ * Mit {@code paymentplan.storage.dedup.enabled} wird identischer Inhalt nur einmal gespeichert ({@link PlanBlobs});
+ * die Plan-Dateien sind dann Hardlinks darauf. Gilt nur für sofort geschriebene Pläne, nicht im Write-Behind-Modus.
+ * <p>
+ * Zu jedem gespeicherten Plan wird eine Metadaten-Datei ({@link PlanMetadata}) geschrieben. Deren Inhalt hält der
+ * {@link PlanMetadataIndex} im Speicher; er wird beim Start parallel aus den Metadaten-Dateien aufgebaut und
+ * beantwortet Suchabfragen, ohne Plan-Dateien zu öffnen.
  */
+@Slf4j
 @Service
-public class PaymentPlanStorageService {
+@ConditionalOnProperty(name = "paymentplan.storage.type", havingValue = "directory", matchIfMissing = true)
+public class PaymentPlanStorageService implements PlanStore {
 
-    private final ObjectMapper mapper = new ObjectMapper();
+    /** Gemeinsamer, von Spring Boot vorkonfigurierter Mapper (Plan- und Metadaten-Dateien) */
+    private final ObjectMapper mapper;
     private final Path storageDir;
+    private final StorageLayout layout;
+    private final PlanEncoding encoding;
+    private final PaymentPlanResponseMapper responseMapper;
+
+    /** Sperren für Schreiben/Löschen je ID; unabhängige Pläne teilen sich selten eine */
+    private static final int LOCK_STRIPES = 64;
+    /** Erneute Öffnungsversuche, wenn die Plan-Datei beim Öffnen für einen Download gerade ersetzt wird */
+    private static final int DOWNLOAD_OPEN_ATTEMPTS = 3;
+    private final StripedLocks locks = new StripedLocks(LOCK_STRIPES);
+
+    /** Bündelt gleichzeitige Lesezugriffe auf denselben (häufig abgerufenen) Plan */
+    private final SingleFlight<String, byte[]> rawReads = new SingleFlight<>();
+    /** Umwandlung für Downloads, je ID und Stand gebündelt */
+    private final SingleFlight<List<String>, byte[]> downloadReads = new SingleFlight<>();
+
+    private final PlanIndex index = new PlanIndex();
+    private final PlanMetadataIndex metadata = new PlanMetadataIndex();
+    private final boolean watch;
+    private WatchService watchService;
+
+    @Value("${paymentplan.storage.write-behind.enabled:false}")
+    private boolean writeBehind;
+
+    @Value("${paymentplan.storage.write-behind.capacity:1000}")
+    private int writeBehindCapacity = 1000;
+
+    @Value("${paymentplan.storage.write-behind.batch-size:64}")
+    private int writeBehindBatchSize = 64;
+
+    /** Nur im Write-Behind-Modus gesetzt */
+    private WriteBehindQueue writeQueue;
+
+    @Value("${paymentplan.storage.dedup.enabled:false}")
+    private boolean dedup;
+
+    /** Nur bei inhaltsadressierter Ablage gesetzt */
+    private PlanBlobs blobs;
 
     public PaymentPlanStorageService(
-            @Value("${paymentplan.storage.dir:payment-plans}") String storageDir) {
+            @Value("${paymentplan.storage.dir:payment-plans}") String storageDir,
+            @Value("${paymentplan.storage.sharded:true}") boolean sharded,
+            @Value("${paymentplan.storage.watch:true}") boolean watch,
+            @Value("${paymentplan.storage.format:JSON}") PlanFormat format,
+            @Value("${paymentplan.storage.compression.enabled:false}") boolean compress,
+            @Value("${paymentplan.storage.compression.level:6}") int compressionLevel,
+            ObjectMapper mapper,
+            PlanJsonReader jsonReader,
+            AmortizationEngine engine,
+            PaymentPlanResponseMapper responseMapper) {
         this.storageDir = Paths.get(storageDir);
+        this.layout = new StorageLayout(this.storageDir, sharded);
+        this.watch = watch;
+        this.mapper = mapper;
+        this.encoding = new PlanEncoding(mapper, jsonReader, engine, responseMapper, format, compress, compressionLevel);
+        this.responseMapper = responseMapper;
         try {
-            Files.createDirectories(this.storageDir);
+            layout.createDirectories();
+            layout.deleteTempFiles();
         } catch (IOException e) {
             throw new RuntimeException("Could not create storage directory", e);
         }
+        rebuildIndex();
+        rebuildMetadata();
+    }
+
+    /**
+     * Startet die Überwachung des Speicherverzeichnisses auf Änderungen von außen, ggf. die Write-Behind-Warteschlange,
+     * und verschiebt im Hintergrund noch flach abgelegte Pläne in das geteilte Layout.
+     */
+    @PostConstruct
+    public void start() {
+        if (writeBehind) {
+            writeQueue = new WriteBehindQueue(writeBehindCapacity, writeBehindBatchSize, layout::planPath);
+        }
+        if (dedup && !PlanBlobs.isSupported(storageDir)) {
+            log.warn("Content-addressed storage needs hard links with link counts, storing plans as plain files");
+        } else if (dedup) {
+            blobs = new PlanBlobs(storageDir);
+            Thread collector = new Thread(this::collectOrphanBlobs, "plan-blob-collector");
+            collector.setDaemon(true);
+            collector.start();
+        }
+        if (watch) {
+            startWatching();
+        }
+        if (layout.isSharded()) {
+            Thread migration = new Thread(this::migrateLayout, "plan-storage-migration");
+            migration.setDaemon(true);
+            migration.start();
+        }
+    }
+
+    private void startWatching() {
+        try {
+            watchService = storageDir.getFileSystem().newWatchService();
+            for (Path dir : layout.directories()) {
+                watch(dir);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not watch storage directory", e);
+        }
+        Thread watcher = new Thread(this::watchLoop, "plan-index-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Verschiebt Pläne aus dem flachen Layout in ihre Unterverzeichnisse (Online-Migration).
+     *
+     * @return Anzahl verschobener Dateien
+     */
+    public int migrateLayout() {
+        try {
+            int moved = layout.migrate(locks);
+            if (moved > 0) {
+                log.info("Moved {} payment plan files into sharded layout", moved);
+            }
+            return moved;
+        } catch (IOException e) {
+            log.warn("Migration of storage directory {} failed", storageDir, e);
+            return 0;
+        }
     }
 
-    public String save(List<PaymentPlanResponse> plan) {
-        String fileId = Instant.now().toEpochMilli() + "-" + UUID.randomUUID();
-        Path file = storageDir.resolve(fileId + ".json");
+    /** Entfernt gespeicherte Inhalte, auf die keine Plan-Datei mehr verweist. */
+    private void collectOrphanBlobs() {
         try {
-            mapper.writeValue(file.toFile(), plan);
+            int removed = blobs.collectOrphans();
+            if (removed > 0) {
+                log.info("Removed {} unreferenced plan blobs", removed);
+            }
+        } catch (IOException e) {
+            log.warn("Collecting unreferenced plan blobs failed", e);
+        }
+    }
+
+    /** Schreibt alle noch wartenden Pläne und beendet die Verzeichnisüberwachung. */
+    @PreDestroy
+    public void stop() throws IOException {
+        if (writeQueue != null) {
+            writeQueue.close();
+        }
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    @Override
+    public String save(AmortizationSchedule schedule) {
+        Instant now = Instant.now();
+        String fileId = now.toEpochMilli() + "-" + UUID.randomUUID();
+        try {
+            write(fileId, schedule, false);
         } catch (IOException e) {
             throw new RuntimeException("Failed to save payment plan", e);
         }
+        saveMeta(responseMapper.toMetadata(fileId, schedule, now));
         return fileId;
     }
 
+    @Override
     public List<PaymentPlanResponse> load(String fileId) {
-        Path file = storageDir.resolve(fileId + ".json");
-        if (!Files.exists(file))
+        try {
+            byte[] queued = writeQueue != null ? writeQueue.pending(fileId) : null;
+            return queued != null ? encoding.read(queued) : encoding.read(openPlan(fileId));
+        } catch (NoSuchFileException e) {
             throw new RuntimeException("Payment plan file not found: " + fileId);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load payment plan", e);
+        }
+    }
+
+    /**
+     * Liest von der Platte nur die Kennung am Dateianfang, solange der Plan nicht im Eingabeformat vorliegt –
+     * bei Zeilenformaten liest das anschließende {@link #load(String)} die Datei dann nur einmal.
+     */
+    @Override
+    public PaymentPlanRequest loadRequest(String fileId) {
         try {
-            PaymentPlanResponse[] arr = mapper.readValue(file.toFile(), PaymentPlanResponse[].class);
-            return List.of(arr);
+            byte[] queued = writeQueue != null ? writeQueue.pending(fileId) : null;
+            return queued != null ? encoding.readRequest(queued) : encoding.readRequest(openPlan(fileId));
+        } catch (NoSuchFileException e) {
+            throw new RuntimeException("Payment plan file not found: " + fileId);
         } catch (IOException e) {
             throw new RuntimeException("Failed to load payment plan", e);
         }
     }
 
+    /**
+     * Liefert den Plan im JSON-Download-Format: JSON-Dateien unverändert, Binärpläne werden dafür umgewandelt.
+     * Gleichzeitige Aufrufe für dieselbe ID teilen sich einen Lesevorgang
+     * (und damit dasselbe Array, das nicht verändert werden darf).
+     */
+    @Override
     public byte[] loadRaw(String fileId) throws IOException {
-        return Files.readAllBytes(storageDir.resolve(fileId + ".json"));
+        return rawReads.execute(fileId, () -> encoding.toJson(readPlan(fileId)));
+    }
+
+    /**
+     * Liefert den Plan im JSON-Download-Format: unkomprimierte JSON-Dateien werden direkt aus der geöffneten
+     * Datei gestreamt, komprimierte bzw. Binärpläne daraus entpackt und umgewandelt.
+     *
+     * @param fileId Datei-ID ohne Endung
+     * @throws NoSuchFileException wenn kein Plan mit dieser ID existiert
+     */
+    @Override
+    public Download jsonDownload(String fileId) throws IOException {
+        byte[] queued = writeQueue != null ? writeQueue.pending(fileId) : null;
+        if (queued != null) {
+            return new Download(new ByteArrayResource(encoding.toJson(queued)), null);
+        }
+        Download stored = openDownload(fileId);
+        try {
+            if (encoding.isPlainJson(readHeader(stored.body()))) {
+                return stored;
+            }
+            byte[] json = stored.version() != null
+                    ? downloadReads.execute(List.of(fileId, stored.version().tag()), () -> toJson(stored.body()))
+                    : toJson(stored.body());
+            stored.close();
+            return new Download(new ByteArrayResource(json), stored.version());
+        } catch (IOException | RuntimeException e) {
+            stored.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Liefert die gespeicherte Datei unverändert, sofern sie GZIP-komprimiertes JSON enthält – zur Auslieferung
+     * mit {@code Content-Encoding: gzip}, ohne bei jedem Abruf neu zu komprimieren.
+     *
+     * @param fileId Datei-ID ohne Endung
+     * @return komprimierte JSON-Datei oder {@code null}, wenn der Plan anders gespeichert ist
+     * @throws NoSuchFileException wenn kein Plan mit dieser ID existiert
+     */
+    @Override
+    public Download gzipJsonDownload(String fileId) throws IOException {
+        byte[] queued = writeQueue != null ? writeQueue.pending(fileId) : null;
+        if (queued != null) {
+            return encoding.isGzipJson(queued) ? new Download(new ByteArrayResource(queued), null) : null;
+        }
+        Download download = openDownload(fileId);
+        try {
+            if (PlanEncoding.isGzip(readHeader(download.body()))) {
+                byte[] inner;
+                try (InputStream in = new GZIPInputStream(download.body().getInputStream())) {
+                    inner = in.readNBytes(BinaryPlanCodec.MAGIC.length);
+                }
+                if (!encoding.isBinary(inner)) {
+                    return download;
+                }
+            }
+            download.close();
+            return null;
+        } catch (IOException | RuntimeException e) {
+            download.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Öffnet die Plan-Datei und bestimmt ihren Stand aus den Attributen vor dem Öffnen. Wurde die Datei zwischen
+     * Attributen und Öffnen ersetzt (andere Datei, Zeit oder Größe danach), wird erneut geöffnet; gelingt das
+     * unter ständigen Neuschreibungen nicht, wird die geöffnete Fassung ohne Stand geliefert.
+     */
+    private Download openDownload(String fileId) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            Path file = locate(fileId);
+            BasicFileAttributes before;
+            FileChannel channel;
+            try {
+                before = Files.readAttributes(file, BasicFileAttributes.class);
+                channel = FileChannel.open(file, StandardOpenOption.READ);
+            } catch (NoSuchFileException e) {
+                // soeben ersetzt, gelöscht oder von der Migration verschoben
+                if (attempt < DOWNLOAD_OPEN_ATTEMPTS) continue;
+                throw e;
+            }
+            try {
+                long size = channel.size();
+                boolean unchanged;
+                try {
+                    BasicFileAttributes after = Files.readAttributes(file, BasicFileAttributes.class);
+                    unchanged = size == before.size() && Objects.equals(before.fileKey(), after.fileKey())
+                            && before.lastModifiedTime().equals(after.lastModifiedTime()) && after.size() == size;
+                } catch (NoSuchFileException e) {
+                    unchanged = false;
+                }
+                if (unchanged || attempt >= DOWNLOAD_OPEN_ATTEMPTS) {
+                    return new Download(new OpenFileResource(channel, size, "plan file [" + file + "]"),
+                            unchanged ? version(before) : null);
+                }
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+            channel.close();
+        }
     }
 
     /**
-     * Löscht einen gespeicherten Plan.
+     * Liefert den Pfad der gespeicherten Datei, damit sie direkt (ohne Zwischenpuffer im Heap) ausgeliefert werden kann.
      *
      * @param fileId Datei-ID ohne Endung
-     * @return true, wenn erfolgreich gelöscht
+     * @return vorhandene Plan-Datei
+     * @throws NoSuchFileException wenn kein Plan mit dieser ID existiert
+     */
+    public Path locate(String fileId) throws NoSuchFileException {
+        Path file = layout.locatePlan(fileId);
+        if (!Files.isRegularFile(file)) {
+            throw new NoSuchFileException(fileId);
+        }
+        return file;
+    }
+
+    /**
+     * Stand aus Änderungszeitpunkt (ns) und Größe der Datei; {@code null}, solange der Plan nur in der
+     * Write-Behind-Warteschlange liegt.
      */
+    @Override
+    public Version version(String fileId) throws IOException {
+        if (isPending(fileId)) {
+            return null;
+        }
+        return version(Files.readAttributes(locate(fileId), BasicFileAttributes.class));
+    }
+
+    private static Version version(BasicFileAttributes attrs) {
+        long modified = attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+        return new Version(attrs.lastModifiedTime().toMillis(),
+                Long.toHexString(modified) + "-" + Long.toHexString(attrs.size()));
+    }
+
+    @Override
+    public long storedSize(String fileId) throws IOException {
+        byte[] queued = writeQueue != null ? writeQueue.pending(fileId) : null;
+        return queued != null ? queued.length : Files.size(locate(fileId));
+    }
+
+    @Override
+    public WriteQueueStatistics getWriteQueueStatistics() {
+        return writeQueue != null
+                ? writeQueue.statistics()
+                : new WriteQueueStatistics(false, 0, 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    @Override
     public boolean delete(String fileId) {
+        Lock lock = locks.get(fileId);
+        lock.lock();
+        String released = null;
         try {
-            return Files.deleteIfExists(storageDir.resolve(fileId + ".json"));
+            released = blobs != null ? blobs.lastReference(layout.planPath(fileId)) : null;
+            // wartenden Schreibauftrag verwerfen, danach wird keine Datei mehr veröffentlicht
+            boolean deleted = writeQueue != null && writeQueue.cancel(fileId);
+            // flache Datei zuerst, damit die Migration den Plan nicht parallel wiederherstellt
+            deleted |= layout.isSharded() && Files.deleteIfExists(layout.flatPlanPath(fileId));
+            deleted |= Files.deleteIfExists(layout.planPath(fileId));
+            Files.deleteIfExists(layout.flatMetaPath(fileId));
+            Files.deleteIfExists(layout.metaPath(fileId));
+            index.remove(fileId);
+            metadata.remove(fileId);
+            return deleted;
         } catch (IOException e) {
             throw new RuntimeException("Failed to delete payment plan", e);
+        } finally {
+            lock.unlock();
+            collect(released);
         }
     }
 
     /**
-     * Gibt eine Liste aller gespeicherten File-IDs zurück.
+     * Gibt eine Liste aller gespeicherten File-IDs zurück (neueste zuerst, aus dem Index).
      */
+    @Override
     public List<String> listAll() {
-        try (Stream<Path> stream = Files.list(storageDir)) {
-            return stream
-                    .filter(p -> p.toString().endsWith(".json"))
-                    .map(p -> p.getFileName().toString().replace(".json", ""))
-                    .sorted(Comparator.reverseOrder()) // neueste zuerst
-                    .collect(Collectors.toList());
+        return index.all();
+    }
+
+    /**
+     * Gibt eine Seite der gespeicherten File-IDs zurück (neueste zuerst, aus dem Index).
+     *
+     * @param cursor letzte ID der vorherigen Seite oder {@code null}
+     * @param limit  maximale Anzahl IDs
+     */
+    @Override
+    public PlanPage list(String cursor, int limit) {
+        return index.page(cursor, limit);
+    }
+
+    /** Baut den Index aus einem vollständigen Verzeichnis-Scan neu auf. */
+    public void rebuildIndex() {
+        try {
+            index.replaceAll(layout.scanFileIds(), id -> isPending(id) || Files.exists(layout.locatePlan(id)));
         } catch (IOException e) {
             throw new RuntimeException("Failed to list payment plans", e);
         }
     }
 
-    public void saveTo(String fileId, List<PaymentPlanResponse> plan) {
-        Path file = storageDir.resolve(fileId + ".json");
+    @Override
+    public void saveTo(String fileId, AmortizationSchedule schedule) {
         try {
-            mapper.writeValue(file.toFile(), plan);
+            write(fileId, schedule, true);
         } catch (IOException e) {
             throw new RuntimeException("Failed to overwrite payment plan", e);
         }
+        PlanMetadata previous = metadata.get(fileId);
+        saveMeta(responseMapper.toMetadata(fileId, schedule,
+                previous != null ? previous.getCreatedAt() : Instant.now()));
+    }
+
+    /** Entfernt Metadaten-Dateien (beide Layouts), zu denen keine Plan-Datei existiert. */
+    @Override
+    public int deleteOrphanMetadata() throws IOException {
+        int removed = 0;
+        for (Path metaFile : layout.scanMetaFiles()) {
+            String fileId = StorageLayout.metaFileId(metaFile);
+            if (index.contains(fileId) || isPending(fileId)) continue;
+            Lock lock = locks.get(fileId);
+            lock.lock();
+            try {
+                if (!Files.exists(layout.locatePlan(fileId)) && Files.deleteIfExists(metaFile)) {
+                    removed++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Sucht über die Metadaten aller Pläne (aus dem Index, ohne Dateizugriff).
+     *
+     * @throws IllegalArgumentException bei unbekannter Sortierung
+     */
+    @Override
+    public PlanQueryResult query(PlanQuery query, int offset, int limit) {
+        return metadata.query(query, offset, limit);
     }
 
-    // Optional: Metadaten speichern
-    public void saveMeta(String fileId, Map<String, String> meta) {
-        Path metaFile = storageDir.resolve(fileId + ".meta.json");
+    /**
+     * Schreibt die Metadaten-Datei eines Plans (Temp-Datei, dann atomares Umbenennen) und übernimmt sie in den Index.
+     * Wurde der Plan inzwischen gelöscht, wird nichts gespeichert.
+     */
+    public void saveMeta(PlanMetadata meta) {
+        String fileId = meta.getFileId();
+        Path metaFile = layout.metaPath(fileId);
+        Path temp = metaFile.resolveSibling(
+                metaFile.getFileName() + "." + Thread.currentThread().getId() + StorageLayout.TEMP_SUFFIX);
         try {
-            mapper.writeValue(metaFile.toFile(), meta);
+            mapper.writeValue(temp.toFile(), meta);
+            Lock lock = locks.get(fileId);
+            lock.lock();
+            try {
+                if (!index.contains(fileId)) {
+                    return;
+                }
+                Files.move(temp, metaFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                if (layout.isSharded()) {
+                    Files.deleteIfExists(layout.flatMetaPath(fileId));
+                }
+                metadata.put(meta);
+            } finally {
+                lock.unlock();
+            }
         } catch (IOException e) {
             throw new RuntimeException("Failed to save metadata", e);
+        } finally {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                log.warn("Could not remove temporary metadata file {}", temp, e);
+            }
+        }
+    }
+
+    /**
+     * @return Metadaten des Plans oder {@code null}, wenn keine gespeichert sind
+     */
+    public PlanMetadata loadMeta(String fileId) {
+        PlanMetadata meta = metadata.get(fileId);
+        return meta != null ? meta : readMeta(layout.locateMeta(fileId));
+    }
+
+    /**
+     * Baut den Metadaten-Index aus allen Metadaten-Dateien neu auf (parallel gelesen). Dateien ohne Plan
+     * sowie unlesbare Dateien werden übergangen.
+     */
+    public void rebuildMetadata() {
+        long start = System.nanoTime();
+        List<Path> metaFiles;
+        try {
+            metaFiles = layout.scanMetaFiles();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to list plan metadata", e);
+        }
+        metaFiles.parallelStream()
+                .filter(file -> index.contains(StorageLayout.metaFileId(file)))
+                .map(this::readMeta)
+                .filter(Objects::nonNull)
+                .forEach(metadata::put);
+        log.info("Loaded metadata of {} payment plans in {} ms", metadata.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private PlanMetadata readMeta(Path metaFile) {
+        try {
+            PlanMetadata meta = mapper.readValue(metaFile.toFile(), PlanMetadata.class);
+            return meta.getFileId() != null ? meta : null;
+        } catch (NoSuchFileException | FileNotFoundException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Skipping unreadable plan metadata {}", metaFile, e);
+            return null;
+        }
+    }
+
+    /**
+     * Schreibt sofort (Temp-Datei, dann atomares Umbenennen) oder – im Write-Behind-Modus – über die Warteschlange.
+     * Kodiert wird außerhalb der Sperre; unter der Sperre der ID wird nur veröffentlicht.
+     *
+     * @param replace true, wenn eine noch nicht migrierte flache Fassung verworfen werden muss
+     */
+    private void write(String fileId, AmortizationSchedule schedule, boolean replace) throws IOException {
+        Path file = layout.planPath(fileId);
+        // je Thread eindeutig, damit gleichzeitige Schreiber derselben ID sich nicht in die Quere kommen
+        Path temp = writeQueue == null
+                ? file.resolveSibling(file.getFileName() + "." + Thread.currentThread().getId() + StorageLayout.TEMP_SUFFIX)
+                : null;
+        String released = null;
+        try {
+            byte[] queued = null;
+            if (temp == null) {
+                queued = encoding.encode(schedule);
+            } else if (blobs != null) {
+                blobs.link(encoding.encode(schedule), temp);
+            } else {
+                encoding.write(schedule, Files.newOutputStream(temp));
+            }
+            Lock lock = locks.get(fileId);
+            lock.lock();
+            try {
+                if (replace && blobs != null) {
+                    released = blobs.lastReference(file);
+                }
+                if (temp != null) {
+                    Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } else {
+                    writeQueue.enqueue(fileId, queued);
+                }
+                if (replace && layout.isSharded()) {
+                    // noch nicht migrierte Fassung ist jetzt veraltet
+                    Files.deleteIfExists(layout.flatPlanPath(fileId));
+                }
+                index.add(fileId);
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            if (temp != null) {
+                Files.deleteIfExists(temp);
+            }
+            collect(released);
         }
     }
 
-    public Map<String, String> loadMeta(String fileId) {
-        Path metaFile = storageDir.resolve(fileId + ".meta.json");
+    /** Entfernt einen Inhalt, dessen letzter Verweis soeben ersetzt oder gelöscht wurde. */
+    private void collect(String hash) {
+        if (hash == null) {
+            return;
+        }
         try {
-            return mapper.readValue(metaFile.toFile(), Map.class);
+            blobs.collect(hash);
         } catch (IOException e) {
-            return Collections.emptyMap();
+            log.warn("Could not remove unreferenced plan blob {}", hash, e);
+        }
+    }
+
+    private boolean isPending(String fileId) {
+        return writeQueue != null && writeQueue.pending(fileId) != null;
+    }
+
+    private static byte[] readHeader(Resource stored) throws IOException {
+        try (InputStream in = stored.getInputStream()) {
+            return in.readNBytes(BinaryPlanCodec.MAGIC.length);
+        }
+    }
+
+    private byte[] toJson(Resource stored) throws IOException {
+        try (InputStream in = stored.getInputStream()) {
+            return encoding.toJson(in.readAllBytes());
+        }
+    }
+
+    /**
+     * Liest die Plan-Datei: zuerst aus der Write-Behind-Warteschlange, dann von der Platte; wurde sie
+     * währenddessen von der Migration verschoben, am neuen Ort.
+     */
+    private byte[] readPlan(String fileId) throws IOException {
+        byte[] queued = writeQueue != null ? writeQueue.pending(fileId) : null;
+        if (queued != null) {
+            return queued;
+        }
+        try {
+            return Files.readAllBytes(layout.locatePlan(fileId));
+        } catch (NoSuchFileException e) {
+            return Files.readAllBytes(layout.planPath(fileId));
+        }
+    }
+
+    /** Öffnet die Plan-Datei zum Lesen; wurde sie soeben von der Migration verschoben, am neuen Ort. */
+    private InputStream openPlan(String fileId) throws IOException {
+        try {
+            return Files.newInputStream(layout.locatePlan(fileId));
+        } catch (NoSuchFileException e) {
+            return Files.newInputStream(layout.planPath(fileId));
+        }
+    }
+
+    private void watch(Path dir) throws IOException {
+        dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE);
+    }
+
+    /**
+     * Überträgt Anlegen/Löschen von Plan-Dateien in den Index; bei verlorenen Ereignissen wird neu aufgebaut.
+     * Wird ein Unterverzeichnis entfernt, wird nur dessen Überwachung aufgegeben (und bei Neuanlage wieder
+     * aufgenommen); endet die Überwachung des Speicherverzeichnisses selbst, wird der Index ein letztes Mal
+     * neu aufgebaut.
+     */
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Path dir = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        rebuildIndex();
+                        continue;
+                    }
+                    String fileName = event.context().toString();
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && dir.equals(storageDir)) {
+                        watchIfShard(dir.resolve(fileName));
+                    }
+                    if (!StorageLayout.isPlanFile(fileName)) continue;
+                    String fileId = StorageLayout.toFileId(fileName);
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                        index.add(fileId);
+                    } else if (!Files.exists(layout.locatePlan(fileId))) {
+                        index.remove(fileId);
+                        metadata.remove(fileId);
+                    }
+                }
+                if (!key.reset()) {
+                    key.cancel();
+                    if (dir.equals(storageDir)) {
+                        log.warn("Storage directory {} is no longer watched", storageDir);
+                        rebuildIndex();
+                        return;
+                    }
+                    log.warn("Plan directory {} is no longer watched", dir);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // regulär beim Herunterfahren
+        } catch (RuntimeException e) {
+            log.warn("Plan index watcher stopped", e);
         }
     }
 
+    /** Nimmt ein (wieder) angelegtes Unterverzeichnis in die Überwachung auf und gleicht den Index ab. */
+    private void watchIfShard(Path child) {
+        if (!Files.isDirectory(child) || !layout.directories().contains(child)) {
+            return;
+        }
+        try {
+            watch(child);
+            // Dateien, die vor der Anmeldung entstanden sind, erfasst nur ein Neuaufbau
+            rebuildIndex();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not watch plan directory {}", child, e);
+        }
+    }
 }
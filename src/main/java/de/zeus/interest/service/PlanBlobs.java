@@ -0,0 +1,160 @@
+/*
+ * Zeus Interest Calculator – PlanBlobs
+ * ------------------------------------
+ * Inhaltsadressierte Ablage identischer Zahlungspläne.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+import de.zeus.interest.util.StripedLocks;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Speichert jeden Planinhalt genau einmal unter seinem SHA-256 ({@code blobs/<ab>/<hash>}); die Plan-Dateien
+ * der einzelnen IDs sind Hardlinks darauf. Der Referenzzähler ist damit die Linkanzahl des Dateisystems
+ * ({@code unix:nlink}, Blob selbst eingeschlossen) und bleibt auch über Abstürze hinweg korrekt.
+ * <p>
+ * Plan-Dateien werden nie an Ort und Stelle beschrieben (siehe {@link PaymentPlanStorageService}), daher
+ * verändert das Überschreiben einer ID nie den gemeinsamen Inhalt anderer IDs.
+ */
+final class PlanBlobs {
+
+    private static final String BLOB_DIR = "blobs";
+
+    private final Path root;
+    private final StripedLocks locks = new StripedLocks(64);
+
+    PlanBlobs(Path storageDir) {
+        this.root = storageDir.resolve(BLOB_DIR);
+    }
+
+    /** Werden Hardlinks und die Linkanzahl vom Dateisystem unterstützt? */
+    static boolean isSupported(Path storageDir) {
+        return storageDir.getFileSystem().supportedFileAttributeViews().contains("unix");
+    }
+
+    /**
+     * Legt {@code link} als Verweis auf den Inhalt an; der Inhalt wird nur geschrieben, wenn er neu ist.
+     *
+     * @param data kodierter Plan
+     * @param link neuer Pfad (wird ersetzt, falls vorhanden)
+     */
+    void link(byte[] data, Path link) throws IOException {
+        String hash = hash(data);
+        Path blob = path(hash);
+        Lock lock = locks.get(hash);
+        lock.lock();
+        try {
+            if (!Files.exists(blob)) {
+                Files.createDirectories(blob.getParent());
+                Path temp = blob.resolveSibling(blob.getFileName() + StorageLayout.TEMP_SUFFIX);
+                Files.write(temp, data);
+                Files.move(temp, blob, StandardCopyOption.ATOMIC_MOVE);
+            }
+            Files.deleteIfExists(link);
+            Files.createLink(link, blob);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ist {@code file} der letzte Verweis auf seinen Inhalt? Vor dem Löschen bzw. Ersetzen aufrufen und
+     * danach den Hash an {@link #collect(String)} übergeben.
+     *
+     * @return Hash des Inhalts oder {@code null}, wenn weitere Verweise bestehen bzw. die Datei kein Verweis ist
+     */
+    String lastReference(Path file) throws IOException {
+        try {
+            if (linkCount(file) != 2) {
+                return null;
+            }
+            return hash(Files.readAllBytes(file));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Entfernt den Inhalt, wenn kein Verweis mehr besteht.
+     *
+     * @return true, wenn entfernt
+     */
+    boolean collect(String hash) throws IOException {
+        Path blob = path(hash);
+        Lock lock = locks.get(hash);
+        lock.lock();
+        try {
+            if (Files.exists(blob) && linkCount(blob) == 1) {
+                Files.delete(blob);
+                return true;
+            }
+            return false;
+        } catch (NoSuchFileException e) {
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Entfernt alle Inhalte ohne Verweis sowie liegengebliebene Temp-Dateien (z. B. nach einem Absturz).
+     *
+     * @return Anzahl entfernter Inhalte
+     */
+    int collectOrphans() throws IOException {
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(root, 2)) {
+            files = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        int removed = 0;
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(StorageLayout.TEMP_SUFFIX)) {
+                Lock lock = locks.get(name.substring(0, name.length() - StorageLayout.TEMP_SUFFIX.length()));
+                lock.lock();
+                try {
+                    Files.deleteIfExists(file);
+                } finally {
+                    lock.unlock();
+                }
+            } else if (collect(name)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private Path path(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static int linkCount(Path file) throws IOException {
+        return (Integer) Files.getAttribute(file, "unix:nlink");
+    }
+
+    private static String hash(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Zeus Interest Calculator – PlanCodec
+ * ------------------------------------
+ * Schnittstelle für die Kodierung gespeicherter Zahlungspläne.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+import de.zeus.interest.dto.PaymentPlanResponse;
+import de.zeus.interest.model.AmortizationSchedule;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Schreibt einen berechneten Plan in ein Dateiformat und liest ihn als Anzeige-Zeilen zurück.
+ */
+public interface PlanCodec {
+
+    /**
+     * @param schedule berechneter Plan
+     * @param out      Ziel (wird nicht geschlossen)
+     */
+    void write(AmortizationSchedule schedule, OutputStream out) throws IOException;
+
+    /**
+     * @param data vollständiger Dateiinhalt
+     * @return Zeilen in Monatsreihenfolge
+     */
+    List<PaymentPlanResponse> read(byte[] data) throws IOException;
+
+    /**
+     * Erkennt das eigene Format am Dateianfang.
+     *
+     * @param header die ersten Bytes der Datei (ggf. weniger, wenn die Datei kürzer ist)
+     */
+    boolean accepts(byte[] header);
+}
@@ -0,0 +1,186 @@
+/*
+ * Zeus Interest Calculator – PlanEncoding
+ * ---------------------------------------
+ * Kodierung, Komprimierung und Formaterkennung gespeicherter Zahlungspläne.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.zeus.interest.dto.PaymentPlanRequest;
+import de.zeus.interest.dto.PaymentPlanResponse;
+import de.zeus.interest.model.AmortizationSchedule;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gemeinsame Kodierung aller {@link PlanStore}-Implementierungen: neue Pläne im konfigurierten
+ * {@link PlanCodec} (optional GZIP-komprimiert), beim Lesen Erkennung von Komprimierung und Format am Anfang.
+ * Pläne ohne Eingaben können nicht im Eingabeformat ({@link RequestPlanCodec}) gespeichert werden und
+ * werden dann binär abgelegt.
+ */
+final class PlanEncoding {
+
+    private final PlanJsonReader jsonReader;
+    private final JsonPlanCodec jsonCodec;
+    private final BinaryPlanCodec binaryCodec;
+    private final RequestPlanCodec requestCodec;
+    private final PlanCodec writeCodec;
+    private final boolean compress;
+    private final int compressionLevel;
+
+    PlanEncoding(ObjectMapper mapper, PlanJsonReader jsonReader, AmortizationEngine engine,
+                 PaymentPlanResponseMapper responseMapper, PlanFormat format, boolean compress, int compressionLevel) {
+        if (compressionLevel < Deflater.BEST_SPEED || compressionLevel > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Compression level must be between 1 and 9");
+        }
+        this.jsonReader = jsonReader;
+        this.jsonCodec = new JsonPlanCodec(mapper, jsonReader, responseMapper);
+        this.binaryCodec = new BinaryPlanCodec(responseMapper);
+        this.requestCodec = new RequestPlanCodec(mapper, engine, responseMapper);
+        this.writeCodec = switch (format) {
+            case JSON -> jsonCodec;
+            case BINARY -> binaryCodec;
+            case REQUEST -> requestCodec;
+        };
+        this.compress = compress;
+        this.compressionLevel = compressionLevel;
+    }
+
+    /** Schreibt den Plan (ggf. komprimiert) in {@code out}; {@code out} wird geschlossen. */
+    void write(AmortizationSchedule schedule, OutputStream out) throws IOException {
+        PlanCodec codec = writeCodec == requestCodec && !requestCodec.supports(schedule) ? binaryCodec : writeCodec;
+        try (OutputStream target = compress ? gzip(out) : out) {
+            codec.write(schedule, target);
+        }
+    }
+
+    /** Kodiert den Plan (ggf. komprimiert) in den Speicher. */
+    byte[] encode(AmortizationSchedule schedule) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+        write(schedule, bytes);
+        return bytes.toByteArray();
+    }
+
+    /** Liest gespeicherte Bytes beliebigen Formats als Anzeige-Zeilen. */
+    List<PaymentPlanResponse> read(byte[] stored) throws IOException {
+        return read(new ByteArrayInputStream(stored));
+    }
+
+    /**
+     * Liest einen gespeicherten Plan beliebigen Formats direkt aus dem Datenstrom (wird geschlossen):
+     * JSON wird beim Entpacken zeilenweise gelesen, Binär- und Eingabeformat werden vollständig eingelesen.
+     */
+    List<PaymentPlanResponse> read(InputStream stored) throws IOException {
+        try (InputStream in = unwrap(stored)) {
+            in.mark(BinaryPlanCodec.MAGIC.length);
+            byte[] header = in.readNBytes(BinaryPlanCodec.MAGIC.length);
+            in.reset();
+            if (binaryCodec.accepts(header)) {
+                return binaryCodec.read(in.readAllBytes());
+            }
+            return requestCodec.accepts(header) ? requestCodec.read(in.readAllBytes()) : jsonCodec.read(in);
+        }
+    }
+
+    /**
+     * Gespeicherte Eingaben eines Plans im Eingabeformat, direkt aus dem Datenstrom (wird geschlossen).
+     * Bei Zeilenformaten wird nur die (entpackte) Kennung am Anfang gelesen; die Eingaben selbst werden
+     * höchstens bis {@code paymentplan.json.max-bytes} eingelesen.
+     *
+     * @return Anfrage oder {@code null}, wenn der Plan in einem Zeilenformat gespeichert ist
+     */
+    PaymentPlanRequest readRequest(InputStream stored) throws IOException {
+        try (InputStream in = unwrap(stored)) {
+            in.mark(BinaryPlanCodec.MAGIC.length);
+            byte[] header = in.readNBytes(BinaryPlanCodec.MAGIC.length);
+            in.reset();
+            return requestCodec.accepts(header) ? requestCodec.readRequest(jsonReader.readAllBytes(in)) : null;
+        }
+    }
+
+    /** Wie {@link #readRequest(InputStream)}, für Bytes im Speicher. */
+    PaymentPlanRequest readRequest(byte[] stored) throws IOException {
+        return readRequest(new ByteArrayInputStream(stored));
+    }
+
+    /** Gespeicherte Bytes im JSON-Download-Format: JSON unverändert, Binär- und Eingabeformat umgewandelt. */
+    byte[] toJson(byte[] stored) throws IOException {
+        byte[] data = decompress(stored);
+        if (!isBinary(data)) {
+            return data;
+        }
+        List<PaymentPlanResponse> rows = binaryCodec.accepts(data) ? binaryCodec.read(data) : requestCodec.read(data);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(8192, data.length * 4));
+        jsonCodec.write(rows, out);
+        return out.toByteArray();
+    }
+
+    /** Unkomprimiertes JSON (kann ohne Umwandlung ausgeliefert werden)? */
+    boolean isPlainJson(byte[] header) {
+        return !isGzip(header) && !isBinary(header);
+    }
+
+    /** GZIP-komprimiertes JSON (kann mit {@code Content-Encoding: gzip} ausgeliefert werden)? */
+    boolean isGzipJson(byte[] stored) throws IOException {
+        if (!isGzip(stored)) {
+            return false;
+        }
+        byte[] inner;
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(stored))) {
+            inner = in.readNBytes(BinaryPlanCodec.MAGIC.length);
+        }
+        return !isBinary(inner);
+    }
+
+    /** Kennung eines Nicht-JSON-Formats (Binär- oder Eingabeformat) in {@code header}? */
+    boolean isBinary(byte[] header) {
+        return binaryCodec.accepts(header) || requestCodec.accepts(header);
+    }
+
+    /** GZIP-Kennung (1f 8b) am Anfang? */
+    static boolean isGzip(byte[] data) {
+        return data.length >= 2 && (data[0] & 0xff) == 0x1f && (data[1] & 0xff) == 0x8b;
+    }
+
+    /** Entpackt GZIP-Inhalte, andere bleiben unverändert. */
+    static byte[] decompress(byte[] data) throws IOException {
+        if (!isGzip(data)) {
+            return data;
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        }
+    }
+
+    /** Datenstrom mit Markierungsunterstützung, GZIP-Inhalte entpackt */
+    private static InputStream unwrap(InputStream stored) throws IOException {
+        InputStream in = new BufferedInputStream(stored, 8192);
+        in.mark(2);
+        byte[] magic = in.readNBytes(2);
+        in.reset();
+        return isGzip(magic) ? new BufferedInputStream(new GZIPInputStream(in, 8192), 8192) : in;
+    }
+
+    private OutputStream gzip(OutputStream out) throws IOException {
+        return new GZIPOutputStream(out, 8192) {
+            {
+                def.setLevel(compressionLevel);
+            }
+        };
+    }
+}
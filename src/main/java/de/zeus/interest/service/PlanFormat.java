@@ -0,0 +1,26 @@
+/*
+ * Zeus Interest Calculator – PlanFormat
+ * -------------------------------------
+ * Dateiformat für neu gespeicherte Zahlungspläne.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+/**
+ * Auswahl des Codecs beim Schreiben ({@code paymentplan.storage.format}). Gelesen werden immer alle Formate.
+ */
+public enum PlanFormat {
+    /** Formatierte Anzeige-Zeilen als JSON-Array (bisheriges Format) */
+    JSON,
+
+    /** Kompaktes spaltenorientiertes Binärformat, siehe {@link BinaryPlanCodec} */
+    BINARY,
+
+    /** Nur die Eingaben; der Plan wird beim Laden neu berechnet, siehe {@link RequestPlanCodec} */
+    REQUEST
+}
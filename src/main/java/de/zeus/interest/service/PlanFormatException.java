@@ -0,0 +1,26 @@
+/*
+ * Zeus Interest Calculator – PlanFormatException
+ * ----------------------------------------------
+ * Fehler beim Einlesen eines Zahlungsplans.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+import java.io.IOException;
+
+/**
+ * Ein eingelesener Plan hat nicht die erwartete Struktur oder überschreitet die Grenzen für Zeilenzahl bzw. Größe.
+ */
+public class PlanFormatException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PlanFormatException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Zeus Interest Calculator – PlanIndex
+ * ------------------------------------
+ * Sortierter In-Memory-Index der gespeicherten Plan-IDs.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+import de.zeus.interest.dto.PlanPage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+
+/**
+ * Threadsicherer, absteigend sortierter Index aller Plan-IDs (IDs beginnen mit dem Zeitstempel,
+ * daher stehen die neuesten Pläne vorn). Seitenabfragen laufen in O(log n + limit) ohne Dateisystemzugriff.
+ */
+public final class PlanIndex {
+
+    private final ConcurrentSkipListSet<String> ids = new ConcurrentSkipListSet<>(Comparator.reverseOrder());
+
+    public void add(String fileId) {
+        ids.add(fileId);
+    }
+
+    public void remove(String fileId) {
+        ids.remove(fileId);
+    }
+
+    public boolean contains(String fileId) {
+        return ids.contains(fileId);
+    }
+
+    /**
+     * Gleicht den Index mit einem vollständigen Verzeichnis-Scan ab. IDs, die im Scan fehlen, werden nur
+     * entfernt, wenn {@code exists} sie ebenfalls verneint – so gehen während des Scans gespeicherte Pläne nicht verloren.
+     *
+     * @param fileIds Ergebnis des Scans
+     * @param exists  Prüfung, ob ein Plan (noch) vorhanden ist
+     */
+    public void replaceAll(Collection<String> fileIds, Predicate<String> exists) {
+        Set<String> scanned = new HashSet<>(fileIds);
+        ids.addAll(scanned);
+        ids.removeIf(id -> !scanned.contains(id) && !exists.test(id));
+    }
+
+    /** Alle IDs, neueste zuerst */
+    public List<String> all() {
+        return new ArrayList<>(ids);
+    }
+
+    /**
+     * Liefert bis zu {@code limit} IDs, die in Sortierreihenfolge nach {@code cursor} folgen.
+     *
+     * @param cursor letzte ID der vorherigen Seite oder {@code null} für die erste Seite
+     * @param limit  maximale Anzahl IDs (größer 0)
+     * @return Seite mit Cursor für die Folgeseite
+     */
+    public PlanPage page(String cursor, int limit) {
+        NavigableSet<String> tail = cursor == null || cursor.isEmpty() ? ids : ids.tailSet(cursor, false);
+        List<String> items = new ArrayList<>(limit);
+        String last = null;
+        for (String id : tail) {
+            if (items.size() == limit) {
+                return new PlanPage(items, last);
+            }
+            items.add(id);
+            last = id;
+        }
+        return new PlanPage(items, null);
+    }
+}
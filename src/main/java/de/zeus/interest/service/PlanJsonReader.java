@@ -0,0 +1,169 @@
+/*
+ * Zeus Interest Calculator – PlanJsonReader
+ * -----------------------------------------
+ * Liest Zahlungspläne im JSON-Format zeilenweise aus einem Datenstrom.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.zeus.interest.dto.PaymentPlanResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Liest das {@link PaymentPlanResponse}-Array (Download-, Upload- und JSON-Speicherformat) mit einem
+ * {@link JsonParser}: Jede Zeile wird einzeln gebunden und geprüft, bevor die nächste gelesen wird.
+ * Zeilenzahl ({@code paymentplan.json.max-rows}) und gelesene Bytes ({@code paymentplan.json.max-bytes},
+ * unkomprimiert) werden während des Lesens begrenzt, sodass zu große Eingaben abbrechen, bevor sie
+ * vollständig im Speicher liegen.
+ */
+@Component
+public class PlanJsonReader {
+
+    private final ObjectMapper mapper;
+    private final int maxRows;
+    private final long maxBytes;
+
+    public PlanJsonReader(ObjectMapper mapper,
+                          @Value("${paymentplan.json.max-rows:" + PaymentPlanService.MAX_PAYMENT_MONTHS + "}") int maxRows,
+                          @Value("${paymentplan.json.max-bytes:2MB}") DataSize maxBytes) {
+        this.mapper = mapper;
+        this.maxRows = maxRows;
+        this.maxBytes = maxBytes.toBytes();
+    }
+
+    /**
+     * @param in JSON-Array der Zeilen (wird geschlossen)
+     * @return Zeilen in Monatsreihenfolge
+     * @throws PlanFormatException bei falscher Struktur oder überschrittenen Grenzen
+     */
+    public List<PaymentPlanResponse> read(InputStream in) throws IOException {
+        List<PaymentPlanResponse> rows = new ArrayList<>();
+        read(in, rows::add);
+        return rows;
+    }
+
+    /**
+     * Übergibt jede geprüfte Zeile sofort an {@code sink}.
+     *
+     * @param in   JSON-Array der Zeilen (wird geschlossen)
+     * @param sink Empfänger der Zeilen in Monatsreihenfolge
+     * @throws PlanFormatException bei falscher Struktur oder überschrittenen Grenzen
+     */
+    public void read(InputStream in, Consumer<PaymentPlanResponse> sink) throws IOException {
+        try (JsonParser parser = mapper.getFactory().createParser(new LimitedInputStream(in, maxBytes))) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new PlanFormatException("Payment plan must be a JSON array");
+            }
+            int rows = 0;
+            int previousRun = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                if (++rows > maxRows) {
+                    throw new PlanFormatException("Payment plan exceeds " + maxRows + " rows");
+                }
+                PaymentPlanResponse row = mapper.readValue(parser, PaymentPlanResponse.class);
+                previousRun = validate(row, previousRun);
+                sink.accept(row);
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new PlanFormatException("Payment plan rows must be JSON objects");
+            }
+            if (parser.nextToken() != null) {
+                throw new PlanFormatException("Unexpected content after payment plan");
+            }
+        }
+    }
+
+    /**
+     * Liest einen gespeicherten Plan in einem anderen Format vollständig ein, unter derselben Größengrenze.
+     *
+     * @param in Datenstrom (wird nicht geschlossen)
+     * @throws PlanFormatException wenn mehr als {@code paymentplan.json.max-bytes} Bytes folgen
+     */
+    public byte[] readAllBytes(InputStream in) throws IOException {
+        return new LimitedInputStream(in, maxBytes).readAllBytes();
+    }
+
+    /**
+     * Prüft die Felder, die beim Weiterverarbeiten geparst werden: aufsteigende Laufnummern und
+     * Sonderzahlungen als Dezimalzahl (Komma oder Punkt, leer erlaubt).
+     *
+     * @return Laufnummer dieser Zeile
+     */
+    private static int validate(PaymentPlanResponse row, int previousRun) throws PlanFormatException {
+        int run;
+        try {
+            run = Integer.parseInt(String.valueOf(row.getRunNumber()));
+        } catch (NumberFormatException e) {
+            throw new PlanFormatException("Invalid run number: " + row.getRunNumber());
+        }
+        if (run <= previousRun) {
+            throw new PlanFormatException("Run numbers must be ascending, got " + run + " after " + previousRun);
+        }
+        String extra = row.getExtraPayment();
+        if (extra != null && !extra.isBlank()) {
+            try {
+                Double.parseDouble(extra.replace(',', '.'));
+            } catch (NumberFormatException e) {
+                throw new PlanFormatException("Invalid extra payment in run " + run + ": " + extra);
+            }
+        }
+        return run;
+    }
+
+    /** Bricht ab, sobald mehr als {@code limit} Bytes gelesen wurden. */
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private final long limit;
+        private long count;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count(n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count(skipped);
+            return skipped;
+        }
+
+        private void count(long n) throws PlanFormatException {
+            count += n;
+            if (count > limit) {
+                throw new PlanFormatException("Payment plan exceeds " + limit + " bytes");
+            }
+        }
+    }
+}
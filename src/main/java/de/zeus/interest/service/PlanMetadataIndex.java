@@ -0,0 +1,152 @@
+/*
+ * Zeus Interest Calculator – PlanMetadataIndex
+ * --------------------------------------------
+ * Sekundärindex über die Kennzahlen gespeicherter Zahlungspläne.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+import de.zeus.interest.dto.PlanMetadata;
+import de.zeus.interest.dto.PlanQuery;
+import de.zeus.interest.dto.PlanQueryResult;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Threadsicherer Index der {@link PlanMetadata} aller Pläne, zusätzlich sortiert nach Erstellung, Enddatum,
+ * Kapital und Zinssumme. Abfragen durchlaufen nur die gewählte Sortierung und beginnen bei einer unteren Schranke
+ * auf dem Sortierkriterium direkt an der passenden Stelle; Plan-Dateien werden nicht geöffnet.
+ */
+public final class PlanMetadataIndex {
+
+    /** Sortierungen; die ID entscheidet bei Gleichstand, damit jeder Plan genau einmal vorkommt */
+    private enum Sort {
+        CREATED(Comparator.comparing(PlanMetadata::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))),
+        PAYOFF(Comparator.comparing(PlanMetadata::getPayoffDate, Comparator.nullsLast(Comparator.naturalOrder()))),
+        PRINCIPAL(Comparator.comparing(PlanMetadata::getPrincipal, Comparator.nullsLast(Comparator.naturalOrder()))),
+        INTEREST(Comparator.comparing(PlanMetadata::getTotalInterest, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        final Comparator<PlanMetadata> order;
+
+        Sort(Comparator<PlanMetadata> order) {
+            this.order = order.thenComparing(PlanMetadata::getFileId);
+        }
+
+        static Sort of(String name) {
+            if (name == null || name.isEmpty()) {
+                return CREATED;
+            }
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown sort order: " + name);
+            }
+        }
+    }
+
+    private final ConcurrentHashMap<String, PlanMetadata> byId = new ConcurrentHashMap<>();
+    private final List<NavigableSet<PlanMetadata>> sorted = new ArrayList<>();
+
+    public PlanMetadataIndex() {
+        for (Sort sort : Sort.values()) {
+            sorted.add(new ConcurrentSkipListSet<>(sort.order));
+        }
+    }
+
+    /** Nimmt die Metadaten eines Plans auf bzw. ersetzt sie. */
+    public void put(PlanMetadata metadata) {
+        // compute serialisiert Änderungen derselben ID, sodass die Sortierungen zum Eintrag in byId passen
+        byId.compute(metadata.getFileId(), (id, previous) -> {
+            for (NavigableSet<PlanMetadata> set : sorted) {
+                if (previous != null) set.remove(previous);
+                set.add(metadata);
+            }
+            return metadata;
+        });
+    }
+
+    public void remove(String fileId) {
+        byId.computeIfPresent(fileId, (id, previous) -> {
+            for (NavigableSet<PlanMetadata> set : sorted) {
+                set.remove(previous);
+            }
+            return null;
+        });
+    }
+
+    /** Metadaten eines Plans oder {@code null} */
+    public PlanMetadata get(String fileId) {
+        return byId.get(fileId);
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * Liefert bis zu {@code limit} Treffer ab Position {@code offset} in der gewünschten Sortierung.
+     *
+     * @param query  Filter und Sortierung
+     * @param offset Anzahl zu überspringender Treffer
+     * @param limit  maximale Anzahl Treffer (größer 0)
+     * @throws IllegalArgumentException bei unbekannter Sortierung
+     */
+    public PlanQueryResult query(PlanQuery query, int offset, int limit) {
+        Sort sort = Sort.of(query.getSort());
+        List<PlanMetadata> items = new ArrayList<>(limit);
+        int skipped = 0;
+        for (PlanMetadata m : candidates(sort, query)) {
+            if (!matches(m, query)) continue;
+            if (skipped < offset) {
+                skipped++;
+            } else if (items.size() == limit) {
+                return new PlanQueryResult(items, offset + limit);
+            } else {
+                items.add(m);
+            }
+        }
+        return new PlanQueryResult(items, null);
+    }
+
+    /** Einträge in Sortierreihenfolge, bei Kapital- bzw. Datumsuntergrenze erst ab dieser */
+    private NavigableSet<PlanMetadata> candidates(Sort sort, PlanQuery query) {
+        NavigableSet<PlanMetadata> set = sorted.get(sort.ordinal());
+        PlanMetadata from = null;
+        if (sort == Sort.PRINCIPAL && query.getMinPrincipal() != null) {
+            from = probe();
+            from.setPrincipal(query.getMinPrincipal());
+        } else if (sort == Sort.PAYOFF && query.getPayoffFrom() != null) {
+            from = probe();
+            from.setPayoffDate(query.getPayoffFrom());
+        }
+        return from != null ? set.tailSet(from, true) : set;
+    }
+
+    /** Vergleichswert, der vor allen Einträgen mit gleichem Sortierwert liegt (leere ID) */
+    private static PlanMetadata probe() {
+        PlanMetadata probe = new PlanMetadata();
+        probe.setFileId("");
+        return probe;
+    }
+
+    private static boolean matches(PlanMetadata m, PlanQuery q) {
+        return (q.getMode() == null || q.getMode() == m.getMode())
+                && (q.getMinPrincipal() == null || m.getPrincipal() != null && m.getPrincipal().compareTo(q.getMinPrincipal()) >= 0)
+                && (q.getMaxPrincipal() == null || m.getPrincipal() != null && m.getPrincipal().compareTo(q.getMaxPrincipal()) <= 0)
+                && (q.getMinRate() == null || m.getInterestRate() != null && m.getInterestRate() >= q.getMinRate())
+                && (q.getMaxRate() == null || m.getInterestRate() != null && m.getInterestRate() <= q.getMaxRate())
+                && (q.getPayoffFrom() == null || m.getPayoffDate() != null && !m.getPayoffDate().isBefore(q.getPayoffFrom()))
+                && (q.getPayoffTo() == null || m.getPayoffDate() != null && !m.getPayoffDate().isAfter(q.getPayoffTo()));
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Zeus Interest Calculator – PlanStore
+ * ------------------------------------
+ * Schnittstelle für die Ablage gespeicherter Zahlungspläne.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+import de.zeus.interest.dto.PaymentPlanRequest;
+import de.zeus.interest.dto.PaymentPlanResponse;
+import de.zeus.interest.dto.PlanPage;
+import de.zeus.interest.dto.PlanQuery;
+import de.zeus.interest.dto.PlanQueryResult;
+import de.zeus.interest.dto.WriteQueueStatistics;
+import de.zeus.interest.model.AmortizationSchedule;
+import org.springframework.core.io.Resource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.List;
+
+/**
+ * Speichert, lädt, listet und löscht Zahlungspläne unter einer Datei-ID.
+ * <p>
+ * Implementierungen: {@link PaymentPlanStorageService} (eine Datei je Plan, Standard) und
+ * {@link LogPlanStore} (Segmentdateien mit Offset-Index), ausgewählt über {@code paymentplan.storage.type}.
+ */
+public interface PlanStore {
+
+    /**
+     * Stand eines gespeicherten Plans für bedingte HTTP-Abrufe.
+     *
+     * @param lastModified Zeitpunkt der letzten Speicherung (ms seit Epoche)
+     * @param tag          ändert sich mit jeder Neuschreibung (ohne Anführungszeichen)
+     */
+    record Version(long lastModified, String tag) { }
+
+    /**
+     * Auszuliefernder Plan: Inhalt, Länge und Stand stammen aus demselben Lesevorgang, auch wenn der Plan
+     * währenddessen neu geschrieben wird. Ist {@code body} an eine geöffnete Datei gebunden, gibt
+     * {@link #close()} sie frei (nach dem Senden der Antwort).
+     *
+     * @param body    Inhalt im JSON-Download-Format (bzw. GZIP-komprimiert)
+     * @param version Stand des ausgelieferten Inhalts oder {@code null}, solange keiner feststeht
+     */
+    record Download(Resource body, Version version) implements Closeable {
+        @Override
+        public void close() throws IOException {
+            if (body instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    /**
+     * Speichert einen berechneten Plan unter einer neuen ID.
+     *
+     * @param schedule berechneter Plan
+     * @return neue Datei-ID
+     */
+    String save(AmortizationSchedule schedule);
+
+    /**
+     * Überschreibt einen gespeicherten Plan (im aktuell konfigurierten Format).
+     *
+     * @param fileId   Datei-ID ohne Endung
+     * @param schedule berechneter Plan
+     */
+    void saveTo(String fileId, AmortizationSchedule schedule);
+
+    /**
+     * @param fileId Datei-ID ohne Endung
+     * @return formatierte Zeilen
+     * @throws RuntimeException wenn der Plan fehlt oder nicht lesbar ist
+     */
+    List<PaymentPlanResponse> load(String fileId);
+
+    /**
+     * Liefert die Eingaben, aus denen der Plan berechnet wurde (nur im Eingabeformat gespeichert).
+     *
+     * @param fileId Datei-ID ohne Endung
+     * @return Anfrage oder {@code null}, wenn der Plan als Zeilen gespeichert ist
+     * @throws RuntimeException wenn der Plan fehlt oder nicht lesbar ist
+     */
+    PaymentPlanRequest loadRequest(String fileId);
+
+    /**
+     * Liefert den Plan im JSON-Download-Format (darf nicht verändert werden).
+     *
+     * @throws NoSuchFileException wenn kein Plan mit dieser ID existiert
+     */
+    byte[] loadRaw(String fileId) throws IOException;
+
+    /**
+     * Liefert den Plan im JSON-Download-Format mit seinem Stand; der Aufrufer schließt den {@link Download}.
+     *
+     * @throws NoSuchFileException wenn kein Plan mit dieser ID existiert
+     */
+    Download jsonDownload(String fileId) throws IOException;
+
+    /**
+     * Liefert die gespeicherten Bytes unverändert mit ihrem Stand, sofern sie GZIP-komprimiertes JSON sind;
+     * der Aufrufer schließt den {@link Download}.
+     *
+     * @return komprimiertes JSON oder {@code null}, wenn der Plan anders gespeichert ist
+     * @throws NoSuchFileException wenn kein Plan mit dieser ID existiert
+     */
+    Download gzipJsonDownload(String fileId) throws IOException;
+
+    /**
+     * @return Stand des Plans oder {@code null}, solange keiner feststeht (z. B. noch nicht geschrieben)
+     * @throws NoSuchFileException wenn kein Plan mit dieser ID existiert
+     */
+    Version version(String fileId) throws IOException;
+
+    /**
+     * @return belegter Speicher des Plans in Byte (wie gespeichert, ggf. komprimiert)
+     * @throws NoSuchFileException wenn kein Plan mit dieser ID existiert
+     */
+    long storedSize(String fileId) throws IOException;
+
+    /**
+     * Löscht einen gespeicherten Plan.
+     *
+     * @param fileId Datei-ID ohne Endung
+     * @return true, wenn erfolgreich gelöscht
+     */
+    boolean delete(String fileId);
+
+    /** Alle gespeicherten IDs, neueste zuerst */
+    List<String> listAll();
+
+    /**
+     * Gibt eine Seite der gespeicherten IDs zurück (neueste zuerst).
+     *
+     * @param cursor letzte ID der vorherigen Seite oder {@code null}
+     * @param limit  maximale Anzahl IDs
+     */
+    PlanPage list(String cursor, int limit);
+
+    /**
+     * Sucht über die Metadaten der gespeicherten Pläne.
+     *
+     * @param query  Filter und Sortierung
+     * @param offset Anzahl zu überspringender Treffer
+     * @param limit  maximale Anzahl Treffer
+     * @throws IllegalArgumentException      bei unbekannter Sortierung
+     * @throws UnsupportedOperationException wenn die Ablage keine Metadaten führt
+     */
+    default PlanQueryResult query(PlanQuery query, int offset, int limit) {
+        throw new UnsupportedOperationException("Plan queries are not supported by this store");
+    }
+
+    /**
+     * Entfernt Metadaten-Dateien, zu denen kein Plan (mehr) existiert.
+     *
+     * @return Anzahl entfernter Dateien
+     */
+    default int deleteOrphanMetadata() throws IOException {
+        return 0;
+    }
+
+    /** Kennzahlen der Write-Behind-Warteschlange ({@code enabled=false}, wenn nicht genutzt) */
+    WriteQueueStatistics getWriteQueueStatistics();
+}
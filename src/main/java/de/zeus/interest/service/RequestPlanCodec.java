@@ -0,0 +1,117 @@
+/*
+ * Zeus Interest Calculator – RequestPlanCodec
+ * -------------------------------------------
+ * Speichert nur die Eingaben eines Zahlungsplans und berechnet ihn beim Lesen neu.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.zeus.interest.dto.PaymentPlanRequest;
+import de.zeus.interest.dto.PaymentPlanResponse;
+import de.zeus.interest.model.AmortizationSchedule;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Speichert statt der Zeilen nur die kanonische {@link PaymentPlanRequest} (wenige hundert Byte statt einiger
+ * hundert Kilobyte); der Plan wird beim Lesen von der {@link AmortizationEngine} neu berechnet:
+ * <pre>
+ * "ZPRQ" | Version (1 Byte) | Engine-Version (int) | Anfrage als JSON
+ * </pre>
+ * Pläne einer neueren Engine-Version werden abgelehnt, ältere mit der aktuellen Engine neu berechnet.
+ */
+public final class RequestPlanCodec implements PlanCodec {
+
+    static final byte[] MAGIC = {'Z', 'P', 'R', 'Q'};
+    static final byte VERSION = 1;
+
+    private static final int HEADER_SIZE = MAGIC.length + 1 + Integer.BYTES;
+
+    private final ObjectMapper mapper;
+    private final AmortizationEngine engine;
+    private final PaymentPlanResponseMapper responseMapper;
+
+    public RequestPlanCodec(ObjectMapper mapper, AmortizationEngine engine, PaymentPlanResponseMapper responseMapper) {
+        this.mapper = mapper.copy().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.engine = engine;
+        this.responseMapper = responseMapper;
+    }
+
+    /** Lässt sich der Plan in diesem Format speichern (trägt er seine Eingaben)? */
+    boolean supports(AmortizationSchedule schedule) {
+        return schedule.getRequest() != null;
+    }
+
+    @Override
+    public void write(AmortizationSchedule schedule, OutputStream out) throws IOException {
+        if (!supports(schedule)) {
+            throw new IOException("Payment plan carries no calculation inputs");
+        }
+        out.write(ByteBuffer.allocate(HEADER_SIZE)
+                .put(MAGIC)
+                .put(VERSION)
+                .putInt(AmortizationEngine.VERSION)
+                .array());
+        mapper.writeValue(out, schedule.getRequest());
+    }
+
+    @Override
+    public List<PaymentPlanResponse> read(byte[] data) throws IOException {
+        return responseMapper.toResponses(readSchedule(data));
+    }
+
+    /** Berechnet den Plan aus den gespeicherten Eingaben neu. */
+    public AmortizationSchedule readSchedule(byte[] data) throws IOException {
+        return engine.calculate(readRequest(data));
+    }
+
+    /**
+     * Liest die gespeicherten Eingaben.
+     *
+     * @param data vollständiger Dateiinhalt
+     * @throws IOException bei fremdem Format, neuerer (Engine-)Version oder unplausiblen Eingaben
+     */
+    public PaymentPlanRequest readRequest(byte[] data) throws IOException {
+        if (!accepts(data) || data.length < HEADER_SIZE) {
+            throw new IOException("Not a request payment plan");
+        }
+        ByteBuffer buf = ByteBuffer.wrap(data, MAGIC.length, HEADER_SIZE - MAGIC.length);
+        byte version = buf.get();
+        if (version != VERSION) {
+            throw new IOException("Unsupported request plan version " + version);
+        }
+        int engineVersion = buf.getInt();
+        if (engineVersion > AmortizationEngine.VERSION) {
+            throw new IOException("Payment plan was saved by newer engine version " + engineVersion);
+        }
+        PaymentPlanRequest request = mapper.readValue(data, HEADER_SIZE, data.length - HEADER_SIZE,
+                PaymentPlanRequest.class);
+        // schützt die Neuberechnung vor manipulierten Dateien
+        if (request.getMode() == null || request.getArithmetic() == null
+                || request.getContractDate() == null || request.getFirstPaymentDate() == null
+                || request.getPaymentMonths() == null || request.getPaymentMonths() < 1
+                || request.getPaymentMonths() > PaymentPlanService.MAX_PAYMENT_MONTHS) {
+            throw new IOException("Corrupt request plan");
+        }
+        return request;
+    }
+
+    @Override
+    public boolean accepts(byte[] header) {
+        if (header.length < MAGIC.length) return false;
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (header[i] != MAGIC[i]) return false;
+        }
+        return true;
+    }
+}
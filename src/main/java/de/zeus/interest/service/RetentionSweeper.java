@@ -0,0 +1,210 @@
+/*
+ * Zeus Interest Calculator – RetentionSweeper
+ * -------------------------------------------
+ * Löscht gespeicherte Zahlungspläne nach konfigurierbaren Aufbewahrungsregeln.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+import de.zeus.interest.dto.RetentionReport;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Setzt die Aufbewahrungsregeln ({@code paymentplan.retention.*}) im Hintergrund durch: Pläne, die älter als
+ * {@code max-age} sind, über {@code max-count} hinausgehen oder (neueste zuerst gezählt) {@code max-bytes}
+ * überschreiten, werden gelöscht. Ein Wert von 0 schaltet die jeweilige Regel ab.
+ * <p>
+ * Gelöscht wird in Stapeln von {@code batch-size} Plänen mit {@code batch-pause} Pause dazwischen, damit
+ * Anfragen nicht spürbar verzögert werden. Das Alter ergibt sich aus dem Zeitstempel am Anfang der ID.
+ */
+@Slf4j
+@Service
+public class RetentionSweeper {
+
+    private final PlanStore store;
+    private final boolean enabled;
+    private final Duration maxAge;
+    private final int maxCount;
+    private final long maxBytes;
+    private final Duration interval;
+    private final int batchSize;
+    private final Duration batchPause;
+
+    private enum Reason { AGE, COUNT, SIZE }
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean stopped;
+    private volatile RetentionReport lastReport;
+
+    public RetentionSweeper(
+            PlanStore store,
+            @Value("${paymentplan.retention.enabled:false}") boolean enabled,
+            @Value("${paymentplan.retention.max-age:0}") Duration maxAge,
+            @Value("${paymentplan.retention.max-count:0}") int maxCount,
+            @Value("${paymentplan.retention.max-bytes:0}") DataSize maxBytes,
+            @Value("${paymentplan.retention.interval:1h}") Duration interval,
+            @Value("${paymentplan.retention.batch-size:100}") int batchSize,
+            @Value("${paymentplan.retention.batch-pause:200ms}") Duration batchPause) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Retention batch size must be positive");
+        }
+        this.store = store;
+        this.enabled = enabled;
+        this.maxAge = maxAge;
+        this.maxCount = maxCount;
+        this.maxBytes = maxBytes.toBytes();
+        this.interval = interval;
+        this.batchSize = batchSize;
+        this.batchPause = batchPause;
+    }
+
+    /** Startet den periodischen Lauf (erstmals nach einem Intervall). */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "plan-retention-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sweepQuietly, interval.toMillis(), interval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /** Bricht einen laufenden Durchgang nach dem aktuellen Stapel ab (ohne Interrupt mitten im Löschen). */
+    @PreDestroy
+    public void stop() {
+        stopped = true;
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(batchPause.toMillis() + 10_000, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /** Bericht des letzten abgeschlossenen Laufs oder {@code null} */
+    public RetentionReport getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Wendet die Aufbewahrungsregeln einmal an.
+     *
+     * @return Bericht über entfernte Pläne und Dauer
+     */
+    public RetentionReport sweep() throws IOException {
+        long start = System.nanoTime();
+        RetentionReport report = new RetentionReport();
+        report.setStartedAt(Instant.now());
+
+        List<String> ids = store.listAll();
+        long oldest = maxAge.isZero() ? Long.MIN_VALUE : report.getStartedAt().minus(maxAge).toEpochMilli();
+        long kept = 0;
+        boolean overBudget = false;
+        List<String> expired = new ArrayList<>();
+        List<Reason> reasons = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            String fileId = ids.get(i);
+            Reason reason;
+            if (maxCount > 0 && i >= maxCount) {
+                reason = Reason.COUNT;
+            } else if (createdAt(fileId) < oldest) {
+                reason = Reason.AGE;
+            } else if (maxBytes > 0 && (overBudget || (kept += sizeOf(fileId)) > maxBytes)) {
+                // neueste Pläne behalten, ab der ersten Überschreitung alle älteren löschen
+                overBudget = true;
+                reason = Reason.SIZE;
+            } else {
+                continue;
+            }
+            expired.add(fileId);
+            reasons.add(reason);
+        }
+
+        int deleted = 0;
+        for (int from = 0; from < expired.size() && !stopped; from += batchSize) {
+            if (from > 0) {
+                pause();
+            }
+            for (int i = from; i < Math.min(from + batchSize, expired.size()); i++) {
+                if (!store.delete(expired.get(i))) continue;
+                deleted++;
+                switch (reasons.get(i)) {
+                    case AGE -> report.setExpiredByAge(report.getExpiredByAge() + 1);
+                    case COUNT -> report.setExpiredByCount(report.getExpiredByCount() + 1);
+                    case SIZE -> report.setExpiredBySize(report.getExpiredBySize() + 1);
+                }
+            }
+        }
+        report.setOrphanedMetadataRemoved(store.deleteOrphanMetadata());
+        report.setRemaining(ids.size() - deleted);
+        report.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        lastReport = report;
+        return report;
+    }
+
+    private void sweepQuietly() {
+        try {
+            RetentionReport report = sweep();
+            log.info("Retention sweep removed {} plans (age {}, count {}, size {}) and {} orphaned metadata files in {} ms",
+                    report.getExpiredByAge() + report.getExpiredByCount() + report.getExpiredBySize(),
+                    report.getExpiredByAge(), report.getExpiredByCount(), report.getExpiredBySize(),
+                    report.getOrphanedMetadataRemoved(), report.getDurationMillis());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Retention sweep failed", e);
+        }
+    }
+
+    /** Gespeicherte Größe; ein zwischenzeitlich gelöschter Plan zählt nicht. */
+    private long sizeOf(String fileId) throws IOException {
+        try {
+            return store.storedSize(fileId);
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(batchPause.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopped = true;
+        }
+    }
+
+    /** Zeitstempel am Anfang der ID ({@code <millis>-<uuid>}); fremde IDs gelten als neu. */
+    static long createdAt(String fileId) {
+        int dash = fileId.indexOf('-');
+        try {
+            return Long.parseLong(dash > 0 ? fileId.substring(0, dash) : fileId);
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+}
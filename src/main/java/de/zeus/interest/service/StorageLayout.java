@@ -0,0 +1,257 @@
+/*
+ * Zeus Interest Calculator – StorageLayout
+ * ----------------------------------------
+ * Verzeichnisaufteilung des Plan-Speichers (flach oder in Hash-Unterverzeichnissen).
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+import de.zeus.interest.util.StripedLocks;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Bildet Plan-IDs auf Dateipfade ab. Im geteilten Layout liegt jeder Plan in einem von {@value #SHARDS}
+ * Unterverzeichnissen ({@code 00}–{@code ff}), bestimmt durch einen Hash der ID – so bleibt jedes einzelne
+ * Verzeichnis auch bei Millionen Plänen klein. Die ID selbst ändert sich dadurch nicht.
+ * <p>
+ * Dateien im alten flachen Layout werden beim Lesen weiterhin gefunden und von {@link #migrate(StripedLocks)}
+ * im laufenden Betrieb in ihr Unterverzeichnis verschoben.
+ */
+public final class StorageLayout {
+
+    /** Anzahl Unterverzeichnisse im geteilten Layout */
+    public static final int SHARDS = 256;
+
+    static final String PLAN_SUFFIX = ".json";
+    static final String META_SUFFIX = ".meta.json";
+    /** Endung unvollständiger Dateien vor dem atomaren Umbenennen */
+    static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path root;
+    private final boolean sharded;
+
+    /**
+     * @param root    Speicherverzeichnis
+     * @param sharded true = Hash-Unterverzeichnisse, false = alle Dateien direkt im Speicherverzeichnis
+     */
+    public StorageLayout(Path root, boolean sharded) {
+        this.root = root;
+        this.sharded = sharded;
+    }
+
+    /** Legt Speicherverzeichnis und (im geteilten Layout) alle Unterverzeichnisse an. */
+    public void createDirectories() throws IOException {
+        Files.createDirectories(root);
+        if (sharded) {
+            for (int shard = 0; shard < SHARDS; shard++) {
+                Files.createDirectories(root.resolve(shardName(shard)));
+            }
+        }
+    }
+
+    public Path root() {
+        return root;
+    }
+
+    public boolean isSharded() {
+        return sharded;
+    }
+
+    /** Zielpfad einer Plan-Datei (für Schreibzugriffe) */
+    public Path planPath(String fileId) {
+        return directoryOf(fileId).resolve(fileId + PLAN_SUFFIX);
+    }
+
+    /** Zielpfad der Metadaten-Datei (für Schreibzugriffe) */
+    public Path metaPath(String fileId) {
+        return directoryOf(fileId).resolve(fileId + META_SUFFIX);
+    }
+
+    /** Pfad der Plan-Datei im alten flachen Layout */
+    public Path flatPlanPath(String fileId) {
+        return root.resolve(fileId + PLAN_SUFFIX);
+    }
+
+    /** Pfad der Metadaten-Datei im alten flachen Layout */
+    public Path flatMetaPath(String fileId) {
+        return root.resolve(fileId + META_SUFFIX);
+    }
+
+    /**
+     * Aktueller Ort der Plan-Datei: im Unterverzeichnis oder – solange noch nicht migriert – im flachen Layout.
+     * Existiert keine von beiden, wird der Zielpfad geliefert.
+     */
+    public Path locatePlan(String fileId) {
+        return locate(planPath(fileId), flatPlanPath(fileId));
+    }
+
+    /** Wie {@link #locatePlan(String)}, für die Metadaten-Datei. */
+    public Path locateMeta(String fileId) {
+        return locate(metaPath(fileId), flatMetaPath(fileId));
+    }
+
+    /** Verzeichnisse, in denen Plan-Dateien liegen können (Speicherverzeichnis zuerst) */
+    public List<Path> directories() {
+        List<Path> dirs = new ArrayList<>(sharded ? SHARDS + 1 : 1);
+        dirs.add(root);
+        if (sharded) {
+            for (int shard = 0; shard < SHARDS; shard++) {
+                dirs.add(root.resolve(shardName(shard)));
+            }
+        }
+        return dirs;
+    }
+
+    /**
+     * Liest die IDs aller vorhandenen Pläne (beide Layouts).
+     *
+     * @return IDs in beliebiger Reihenfolge, ohne Duplikate
+     */
+    public List<String> scanFileIds() throws IOException {
+        try (Stream<Path> stream = Files.walk(root, sharded ? 2 : 1)) {
+            return stream
+                    .map(p -> p.getFileName().toString())
+                    .filter(StorageLayout::isPlanFile)
+                    .map(StorageLayout::toFileId)
+                    .distinct()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /** Alle vorhandenen Metadaten-Dateien (beide Layouts) */
+    public List<Path> scanMetaFiles() throws IOException {
+        try (Stream<Path> stream = Files.walk(root, sharded ? 2 : 1)) {
+            return stream
+                    .filter(p -> p.getFileName().toString().endsWith(META_SUFFIX))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /** ID einer Metadaten-Datei */
+    static String metaFileId(Path metaFile) {
+        return fileIdOf(metaFile.getFileName().toString());
+    }
+
+    /**
+     * Entfernt liegengebliebene Temp-Dateien (Abbruch zwischen Schreiben und Umbenennen).
+     * Nur vor Beginn des Schreibbetriebs aufrufen.
+     */
+    public void deleteTempFiles() throws IOException {
+        List<Path> temps;
+        try (Stream<Path> stream = Files.walk(root, sharded ? 2 : 1)) {
+            temps = stream.filter(p -> p.getFileName().toString().endsWith(TEMP_SUFFIX))
+                    .filter(Files::isRegularFile)
+                    .collect(Collectors.toList());
+        }
+        for (Path temp : temps) {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Verschiebt alle Plan- und Metadaten-Dateien des flachen Layouts in ihr Unterverzeichnis.
+     * Läuft parallel zum normalen Betrieb: Lesezugriffe finden eine Datei vor und nach dem Verschieben.
+     * Jede Datei wird unter der Sperre ihrer ID verschoben, und zwar als fester Link mit anschließendem Löschen
+     * der flachen Datei – eine am Ziel bereits vorhandene (neuere) Fassung wird so nie ersetzt, auch nicht von
+     * Schreibern ohne diese Sperre (Write-Behind). Die flache Datei wird dann verworfen.
+     *
+     * @param locks Sperren je Plan-ID, dieselben wie beim Schreiben
+     * @return Anzahl verschobener Dateien
+     */
+    public int migrate(StripedLocks locks) throws IOException {
+        if (!sharded) return 0;
+        List<Path> flat;
+        try (Stream<Path> stream = Files.list(root)) {
+            flat = stream.filter(p -> p.getFileName().toString().endsWith(PLAN_SUFFIX))
+                    .filter(Files::isRegularFile)
+                    .collect(Collectors.toList());
+        }
+        int moved = 0;
+        for (Path source : flat) {
+            String fileId = fileIdOf(source.getFileName().toString());
+            Path target = directoryOf(fileId).resolve(source.getFileName());
+            Lock lock = locks.get(fileId);
+            lock.lock();
+            try {
+                if (moveIfAbsent(source, target)) {
+                    moved++;
+                } else {
+                    Files.deleteIfExists(source);
+                }
+            } catch (NoSuchFileException e) {
+                // zwischenzeitlich gelöscht oder bereits verschoben
+            } finally {
+                lock.unlock();
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Verschiebt {@code source} nach {@code target}, sofern dort noch keine Datei liegt.
+     *
+     * @return false, wenn {@code target} bereits existiert ({@code source} bleibt dann unverändert)
+     */
+    private static boolean moveIfAbsent(Path source, Path target) throws IOException {
+        try {
+            Files.createLink(target, source);
+        } catch (FileAlreadyExistsException e) {
+            return false;
+        } catch (UnsupportedOperationException e) {
+            // Dateisystem ohne feste Links: Prüfen und Umbenennen (ohne Schutz vor Write-Behind)
+            if (Files.exists(target)) return false;
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        }
+        Files.delete(source);
+        return true;
+    }
+
+    /** Plan-Datei (nicht Metadaten)? */
+    static boolean isPlanFile(String fileName) {
+        return fileName.endsWith(PLAN_SUFFIX) && !fileName.endsWith(META_SUFFIX);
+    }
+
+    /** ID einer Plan-Datei */
+    static String toFileId(String fileName) {
+        return fileName.substring(0, fileName.length() - PLAN_SUFFIX.length());
+    }
+
+    /** ID einer Plan- oder Metadaten-Datei */
+    private static String fileIdOf(String fileName) {
+        return fileName.endsWith(META_SUFFIX)
+                ? fileName.substring(0, fileName.length() - META_SUFFIX.length())
+                : toFileId(fileName);
+    }
+
+    /** Unterverzeichnis einer ID (stabil über Programmläufe, da {@link String#hashCode()} festgelegt ist) */
+    static String shardOf(String fileId) {
+        int h = fileId.hashCode();
+        return shardName((h ^ (h >>> 16)) & (SHARDS - 1));
+    }
+
+    private Path directoryOf(String fileId) {
+        return sharded ? root.resolve(shardOf(fileId)) : root;
+    }
+
+    private static String shardName(int shard) {
+        return String.format("%02x", shard);
+    }
+
+    private Path locate(Path target, Path flat) {
+        if (!sharded || Files.exists(target)) return target;
+        return Files.exists(flat) ? flat : target;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Zeus Interest Calculator – SummaryReducer
+ * -----------------------------------------
+ * Fasst die Perioden einer Berechnung zu Summen zusammen.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+import de.zeus.interest.dto.PlanSummary;
+import de.zeus.interest.model.ArithmeticMode;
+import de.zeus.interest.model.CalculationMode;
+import de.zeus.interest.model.PeriodSink;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * {@link PeriodSink} mit konstantem Speicherbedarf: Statt Zeilen abzulegen, werden nur Cent-Summen und die
+ * letzte Periode fortgeschrieben. Gerechnet wird auf denselben Cent-Werten, die der vollständige Plan speichert,
+ * daher stimmen die Summen mit denen über dessen Zeilen überein.
+ */
+final class SummaryReducer implements PeriodSink {
+
+    private int periods;
+    private long interestCents;
+    private long paidCents;
+    private long lastFutureCents;
+    private int lastEpochDay;
+
+    private int extraViolationRun;
+    private long extraViolationDebt;
+
+    @Override
+    public void period(long initialCents, long futureCents, long interestCents, long paymentCents,
+                       long changeCents, long extraCents, int days, int repaymentEpochDay, boolean last) {
+        periods++;
+        this.interestCents += interestCents;
+        paidCents += paymentCents + extraCents;
+        lastFutureCents = futureCents;
+        lastEpochDay = repaymentEpochDay;
+    }
+
+    @Override
+    public void extraViolation(int run, long debtCents) {
+        extraViolationRun = run;
+        extraViolationDebt = debtCents;
+    }
+
+    /** Monat der ersten zu hohen Sondertilgung, 0 wenn keine vorliegt */
+    int getExtraViolationRun() {
+        return extraViolationRun;
+    }
+
+    /** Restschuld (Cent) im Monat der zu hohen Sondertilgung */
+    long getExtraViolationDebt() {
+        return extraViolationDebt;
+    }
+
+    PlanSummary toSummary(CalculationMode mode, ArithmeticMode arithmetic) {
+        return new PlanSummary(
+                mode,
+                arithmetic,
+                periods,
+                BigDecimal.valueOf(interestCents, 2),
+                BigDecimal.valueOf(paidCents, 2),
+                periods > 0 ? LocalDate.ofEpochDay(lastEpochDay) : null,
+                BigDecimal.valueOf(lastFutureCents, 2));
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Zeus Interest Calculator – WriteBehindQueue
+ * -------------------------------------------
+ * Asynchrones, gebündeltes Schreiben gespeicherter Zahlungspläne.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+import de.zeus.interest.dto.WriteQueueStatistics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Write-Behind für den Plan-Speicher: fertig kodierte Dateien werden sofort im Speicher abgelegt
+ * (und sind damit lesbar) und von einem Hintergrund-Thread stapelweise auf die Platte geschrieben.
+ * <p>
+ * Je Stapel werden alle Dateien zunächst als Temp-Datei geschrieben, dann gemeinsam mit fsync gesichert,
+ * per atomarem Umbenennen veröffentlicht und abschließend die betroffenen Verzeichnisse gesichert.
+ * Die Warteschlange ist beschränkt; ist sie voll, wartet der speichernde Aufrufer.
+ * <p>
+ * Schlägt ein Stapel fehl, bleiben seine Aufträge lesbar und werden mit wachsendem Abstand erneut geschrieben –
+ * ein bereits bestätigter Plan geht so nicht stillschweigend verloren. Erst beim Herunterfahren wird nach
+ * {@value #SHUTDOWN_RETRIES} weiteren Versuchen aufgegeben.
+ */
+@Slf4j
+final class WriteBehindQueue {
+
+    /** Ein Schreibauftrag; Identität zählt (neuere Aufträge derselben ID ersetzen ältere). */
+    private record Entry(String fileId, byte[] data, long enqueuedNanos) { }
+
+    /** Wartezeit vor dem ersten erneuten Versuch; verdoppelt sich bis {@link #MAX_BACKOFF_MILLIS} */
+    private static final long MIN_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    /** Versuche nach {@link #close()}, bevor ein fehlschlagender Stapel verworfen wird */
+    private static final int SHUTDOWN_RETRIES = 3;
+
+    private final BlockingQueue<Entry> queue;
+    private final ConcurrentHashMap<String, Entry> pending = new ConcurrentHashMap<>();
+    private final int capacity;
+    private final int batchSize;
+    private final Function<String, Path> target;
+    private final Thread writer;
+    /**
+     * Einreihen (geteilt) und Schließen (exklusiv) schließen sich aus: Nach {@link #close()} liegt jeder
+     * angenommene Auftrag bereits in der Warteschlange und wird noch geschrieben.
+     */
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private volatile boolean running = true;
+
+    private long written;
+    private long batches;
+    private long failures;
+    private long lastFlushLatencyNanos;
+    private long maxFlushLatencyNanos;
+
+    /**
+     * @param capacity  maximale Anzahl wartender Aufträge
+     * @param batchSize maximale Anzahl Dateien je Stapel
+     * @param target    Zielpfad je Datei-ID
+     */
+    WriteBehindQueue(int capacity, int batchSize, Function<String, Path> target) {
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.target = target;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = new Thread(this::writeLoop, "plan-write-behind");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Reiht eine Datei zum Schreiben ein; sie ist ab sofort über {@link #pending(String)} lesbar.
+     * Blockiert, solange die Warteschlange voll ist.
+     */
+    void enqueue(String fileId, byte[] data) {
+        closeLock.readLock().lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Write-behind queue is closed");
+            }
+            Entry entry = new Entry(fileId, data, System.nanoTime());
+            pending.put(fileId, entry);
+            try {
+                queue.put(entry);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pending.remove(fileId, entry);
+                throw new RuntimeException("Interrupted while queueing payment plan", e);
+            }
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Inhalt eines noch nicht geschriebenen Plans oder {@code null}
+     */
+    byte[] pending(String fileId) {
+        Entry entry = pending.get(fileId);
+        return entry != null ? entry.data() : null;
+    }
+
+    /**
+     * Verwirft einen noch nicht geschriebenen Plan (z. B. beim Löschen). Nach der Rückkehr wird für diese ID
+     * keine Datei mehr veröffentlicht.
+     *
+     * @return true, wenn ein Auftrag verworfen wurde
+     */
+    synchronized boolean cancel(String fileId) {
+        return pending.remove(fileId) != null;
+    }
+
+    /** Schreibt alle wartenden Aufträge und beendet den Hintergrund-Thread. */
+    void close() {
+        // wartet auf laufende enqueue-Aufrufe; der Schreib-Thread leert die Warteschlange vor dem Beenden
+        closeLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    synchronized WriteQueueStatistics statistics() {
+        return new WriteQueueStatistics(true, queue.size(), capacity, pending.size(), written, batches, failures,
+                TimeUnit.NANOSECONDS.toMillis(lastFlushLatencyNanos), TimeUnit.NANOSECONDS.toMillis(maxFlushLatencyNanos));
+    }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        long backoffMillis = MIN_BACKOFF_MILLIS;
+        int shutdownRetries = 0;
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    Entry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) continue;
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                } else {
+                    // erneuter Versuch des fehlgeschlagenen Stapels
+                    Thread.sleep(running ? backoffMillis : MIN_BACKOFF_MILLIS);
+                }
+                writeBatch(batch);
+                batch.clear();
+                backoffMillis = MIN_BACKOFF_MILLIS;
+            } catch (InterruptedException e) {
+                // beim Herunterfahren: Rest der Warteschlange trotzdem schreiben
+                running = false;
+            } catch (IOException | RuntimeException e) {
+                synchronized (this) {
+                    failures++;
+                }
+                // bereits veröffentlichte, ersetzte oder gelöschte Aufträge nicht wiederholen
+                batch.removeIf(entry -> pending.get(entry.fileId()) != entry);
+                if (!running && ++shutdownRetries > SHUTDOWN_RETRIES) {
+                    log.error("Giving up on {} queued payment plans at shutdown", batch.size(), e);
+                    for (Entry entry : batch) pending.remove(entry.fileId(), entry);
+                    batch.clear();
+                } else {
+                    log.warn("Failed to write {} queued payment plans, retrying in {} ms",
+                            batch.size(), running ? backoffMillis : MIN_BACKOFF_MILLIS, e);
+                    backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+                }
+            }
+        }
+    }
+
+    private void writeBatch(List<Entry> batch) throws IOException {
+        List<Entry> current = new ArrayList<>(batch.size());
+        List<Path> temps = new ArrayList<>(batch.size());
+        Set<Path> dirs = new LinkedHashSet<>();
+        int moved = 0;
+        try {
+            // 1. Temp-Dateien schreiben (nur aktuelle Aufträge, überholte werden übersprungen)
+            List<FileChannel> channels = new ArrayList<>(batch.size());
+            try {
+                for (Entry entry : batch) {
+                    if (pending.get(entry.fileId()) != entry) continue;
+                    Path temp = tempPath(entry.fileId());
+                    FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                    channels.add(channel);
+                    current.add(entry);
+                    temps.add(temp);
+                    ByteBuffer buf = ByteBuffer.wrap(entry.data());
+                    while (buf.hasRemaining()) channel.write(buf);
+                }
+                // 2. gemeinsam sichern
+                for (FileChannel channel : channels) channel.force(true);
+            } finally {
+                for (FileChannel channel : channels) channel.close();
+            }
+
+            // 3. veröffentlichen, sofern nicht zwischenzeitlich gelöscht oder ersetzt
+            for (int i = 0; i < current.size(); i++) {
+                Entry entry = current.get(i);
+                Path file = target.apply(entry.fileId());
+                synchronized (this) {
+                    if (pending.get(entry.fileId()) != entry) continue;
+                    Files.move(temps.get(i), file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    pending.remove(entry.fileId(), entry);
+                }
+                moved++;
+                dirs.add(file.getParent());
+            }
+
+            // 4. Verzeichniseinträge sichern
+            for (Path dir : dirs) forceDirectory(dir);
+        } finally {
+            for (Path temp : temps) Files.deleteIfExists(temp);
+        }
+
+        long now = System.nanoTime();
+        synchronized (this) {
+            written += moved;
+            batches++;
+            lastFlushLatencyNanos = now - batch.get(0).enqueuedNanos();
+            maxFlushLatencyNanos = Math.max(maxFlushLatencyNanos, lastFlushLatencyNanos);
+        }
+    }
+
+    private Path tempPath(String fileId) {
+        Path file = target.apply(fileId);
+        return file.resolveSibling(file.getFileName() + StorageLayout.TEMP_SUFFIX);
+    }
+
+    /** fsync auf das Verzeichnis (macht Umbenennungen dauerhaft); nicht jedes Dateisystem unterstützt das. */
+    private static void forceDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // z. B. Windows: Verzeichnisse lassen sich nicht öffnen
+        }
+    }
+}
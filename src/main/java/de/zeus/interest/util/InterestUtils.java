@@ -60,4 +60,61 @@ public final class InterestUtils {
                 + (end.getMonthValue() - start.getMonthValue()) * 30
                 + (d2 - d1);
     }
+
+    /**
+     * Rundet kaufmännisch (HALF_UP) auf 2 Nachkommastellen – ohne {@link BigDecimal}-Allokation.
+     * Das Ergebnis entspricht {@code BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).doubleValue()}:
+     * Ein Wert gilt als genau auf der Mitte liegend, wenn die Dezimalzahl {@code x,xx5} denselben double ergibt.
+     *
+     * @param value zu rundender Wert
+     * @return auf 2 Nachkommastellen gerundeter Wert
+     */
+    public static double roundHalfUp2(double value) {
+        double abs = Math.abs(value);
+        double lower = Math.floor(abs * 100);
+        double half = (lower + 0.5) / 100.0;
+        double rounded = (abs >= half ? lower + 1 : lower) / 100.0;
+        if (rounded == 0) return 0.0;
+        return value < 0 ? -rounded : rounded;
+    }
+
+    /**
+     * Wandelt einen Betrag in Cent um (kaufmännisch gerundet, siehe {@link #roundHalfUp2(double)}).
+     *
+     * @param value Betrag in Euro
+     * @return Betrag in Cent
+     */
+    public static long toCents(double value) {
+        return Math.round(roundHalfUp2(value) * 100);
+    }
+
+    /**
+     * Ganzzahlige Division mit expliziter Rundungsregel (Semantik wie {@link BigDecimal#divide}),
+     * ohne Objekt-Allokation.
+     *
+     * @param dividend Dividend
+     * @param divisor  Divisor (größer 0)
+     * @param rounding Rundungsregel
+     * @return gerundeter Quotient
+     * @throws ArithmeticException bei {@link RoundingMode#UNNECESSARY} und Rest ungleich 0
+     */
+    public static long divideRounded(long dividend, long divisor, RoundingMode rounding) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) return quotient;
+
+        int sign = dividend < 0 ? -1 : 1;
+        int half = Long.compare(Math.abs(remainder), divisor - Math.abs(remainder));
+        boolean awayFromZero = switch (rounding) {
+            case UP -> true;
+            case DOWN -> false;
+            case CEILING -> sign > 0;
+            case FLOOR -> sign < 0;
+            case HALF_UP -> half >= 0;
+            case HALF_DOWN -> half > 0;
+            case HALF_EVEN -> half > 0 || (half == 0 && (quotient & 1) != 0);
+            case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+        };
+        return awayFromZero ? quotient + sign : quotient;
+    }
 }
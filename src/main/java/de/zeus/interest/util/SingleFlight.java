@@ -0,0 +1,96 @@
+/*
+ * Zeus Interest Calculator – SingleFlight
+ * ---------------------------------------
+ * Bündelt gleichzeitige, identische Aufrufe zu einer einzigen Ausführung.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * In-Flight-Deduplizierung: Der erste Aufrufer für einen Schlüssel führt die Arbeit aus, alle gleichzeitig
+ * eintreffenden Aufrufer mit demselben Schlüssel warten auf dasselbe Ergebnis (bzw. denselben Fehler).
+ * Nach Abschluss wird nichts aufbewahrt – der nächste Aufruf rechnet wieder selbst.
+ * <p>
+ * Das Ergebnis wird zwischen allen wartenden Aufrufern geteilt und darf nicht verändert werden.
+ *
+ * @param <K> Schlüsseltyp (mit {@code equals}/{@code hashCode})
+ * @param <V> Ergebnistyp
+ */
+public final class SingleFlight<K, V> {
+
+    /**
+     * Auszuführende Arbeit; darf eine geprüfte Exception werfen.
+     *
+     * @param <V> Ergebnistyp
+     * @param <E> Exception-Typ
+     */
+    @FunctionalInterface
+    public interface Loader<V, E extends Exception> {
+        V load() throws E;
+    }
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Führt {@code loader} aus oder wartet auf eine bereits laufende Ausführung mit demselben Schlüssel.
+     * Alle Aufrufer eines Schlüssels müssen denselben Exception-Typ {@code E} verwenden.
+     *
+     * @param key    Schlüssel der Arbeit
+     * @param loader Arbeit, die nur vom ersten Aufrufer ausgeführt wird
+     * @return Ergebnis der (gemeinsamen) Ausführung
+     * @throws E Fehler der (gemeinsamen) Ausführung
+     */
+    public <E extends Exception> V execute(K key, Loader<V, E> loader) throws E {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, own);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            V value = loader.load();
+            own.complete(value);
+            return value;
+        } catch (Exception | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    /** Anzahl aktuell laufender Ausführungen */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V, E extends Exception> V await(CompletableFuture<V> future) throws E {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    // weiter warten, Unterbrechung nach Abschluss wiederherstellen
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException re) throw re;
+                    if (cause instanceof Error err) throw err;
+                    throw (E) cause;
+                }
+            }
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Zeus Interest Calculator – StripedLocks
+ * ---------------------------------------
+ * Feste Menge von Sperren, auf die Schlüssel per Hash verteilt werden.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.util;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sperre je Schlüssel ohne eine Sperre je Schlüssel anzulegen: Derselbe Schlüssel erhält immer dieselbe
+ * der {@code stripes} Sperren, verschiedene Schlüssel teilen sich eine nur bei gleichem Hash-Anteil.
+ */
+public final class StripedLocks {
+
+    private final Lock[] locks;
+
+    /**
+     * @param stripes Anzahl Sperren (wird auf eine Zweierpotenz aufgerundet)
+     */
+    public StripedLocks(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        locks = new Lock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /** Sperre für {@code key} */
+    public Lock get(Object key) {
+        int h = key.hashCode();
+        return locks[(h ^ (h >>> 16)) & (locks.length - 1)];
+    }
+}
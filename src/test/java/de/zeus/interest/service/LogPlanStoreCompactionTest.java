@@ -0,0 +1,109 @@
+/*
+ * Zeus Interest Calculator – LogPlanStoreCompactionTest
+ * -----------------------------------------------------
+ * Kompaktierung des Log-Speichers unter ständigem Anlegen und Löschen.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+import de.zeus.interest.dto.PaymentPlanRequest;
+import de.zeus.interest.model.AmortizationSchedule;
+import de.zeus.interest.model.CalculationMode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bei gleichbleibendem Bestand gültiger Pläne darf der Log unter Anlegen/Löschen nicht wachsen:
+ * Löschmarken werden verworfen, sobald kein älteres Segment mehr einen Datensatz ihrer ID enthält.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "paymentplan.storage.type=log",
+        "paymentplan.storage.log.segment-size=4096",
+        "paymentplan.storage.log.fsync=false",
+        "paymentplan.storage.log.compaction-interval=0"
+})
+class LogPlanStoreCompactionTest {
+
+    private static final int LIVE_PLANS = 40;
+    private static final int CHURN_PER_ROUND = 20;
+    private static final int ROUNDS = 24;
+
+    @TempDir
+    static Path storageDir;
+
+    @DynamicPropertySource
+    static void storageProperties(DynamicPropertyRegistry registry) {
+        registry.add("paymentplan.storage.dir", () -> storageDir.toString());
+    }
+
+    @Autowired
+    private LogPlanStore store;
+
+    @Autowired
+    private PaymentPlanService paymentPlanService;
+
+    @Test
+    void logSizeStaysBoundedUnderCreateDeleteChurn() throws IOException {
+        AmortizationSchedule schedule = schedule();
+        for (int i = 0; i < LIVE_PLANS; i++) {
+            store.saveTo("live-" + i, schedule);
+        }
+
+        List<Long> sizes = new ArrayList<>();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int i = 0; i < CHURN_PER_ROUND; i++) {
+                String fileId = "churn-" + round + "-" + i;
+                store.saveTo(fileId, schedule);
+                store.delete(fileId);
+            }
+            store.compact();
+            sizes.add(logSize());
+        }
+
+        assertThat(store.listAll()).hasSize(LIVE_PLANS);
+        long settled = sizes.subList(0, ROUNDS / 2).stream().mapToLong(Long::longValue).max().orElseThrow();
+        // höchstens ein weiteres (aktives) Segment über dem Stand der ersten Runden
+        assertThat(sizes.subList(ROUNDS / 2, ROUNDS)).allSatisfy(size -> assertThat(size).isLessThanOrEqualTo(settled + 4096));
+    }
+
+    private long logSize() throws IOException {
+        try (Stream<Path> files = Files.list(storageDir.resolve("log"))) {
+            long total = 0;
+            for (Path file : files.filter(p -> p.getFileName().toString().endsWith(".log")).toList()) {
+                total += Files.size(file);
+            }
+            return total;
+        }
+    }
+
+    private AmortizationSchedule schedule() {
+        PaymentPlanRequest req = new PaymentPlanRequest();
+        req.setMode(CalculationMode.DEPOSIT);
+        req.setInitialValue(10_000);
+        req.setInterestRate(3.5);
+        req.setPaymentAmount(250);
+        req.setPaymentMonths(12);
+        req.setContractDate(LocalDate.of(2025, 1, 15));
+        req.setFirstPaymentDate(LocalDate.of(2025, 2, 28));
+        return paymentPlanService.calculate(req);
+    }
+}
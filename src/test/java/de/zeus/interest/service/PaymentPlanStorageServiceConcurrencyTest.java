@@ -0,0 +1,180 @@
+/*
+ * Zeus Interest Calculator – PaymentPlanStorageServiceConcurrencyTest
+ * -------------------------------------------------------------------
+ * Lasttest: paralleles Schreiben, Löschen und Lesen desselben gespeicherten Plans.
+ *
+ * © 2025 Guido Zeuner (https://tiny-tool.de)
+ *
+ * Lizenz: Apache License, Version 2.0
+ * Siehe LICENSE-Datei oder https://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package de.zeus.interest.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.zeus.interest.dto.PaymentPlanRequest;
+import de.zeus.interest.dto.PaymentPlanResponse;
+import de.zeus.interest.model.AmortizationSchedule;
+import de.zeus.interest.model.CalculationMode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mehrere Schreiber ersetzen und löschen denselben Plan, während Leser ihn über {@link PlanStore#load(String)}
+ * und {@link PlanStore#loadRaw(String)} abrufen. Jeder Lesevorgang muss eine der geschriebenen Fassungen
+ * vollständig liefern oder "nicht gefunden" melden – nie einen halb geschriebenen Stand.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class PaymentPlanStorageServiceConcurrencyTest {
+
+    private static final int WRITERS = 4;
+    private static final int READERS = 8;
+    private static final long DURATION_MILLIS = 2_000;
+    private static final String FILE_ID = "concurrency-test";
+
+    @TempDir
+    static Path storageDir;
+
+    @DynamicPropertySource
+    static void storageProperties(DynamicPropertyRegistry registry) {
+        registry.add("paymentplan.storage.dir", () -> storageDir.toString());
+    }
+
+    @Autowired
+    private PaymentPlanStorageService storageService;
+
+    @Autowired
+    private PaymentPlanService paymentPlanService;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Test
+    void readsAreCompleteOrNotFoundUnderParallelWritesAndDeletes() throws Exception {
+        // unterschiedliche Zeilenzahlen: eine unvollständige Datei fiele beim Lesen oder Zählen auf
+        List<AmortizationSchedule> versions = List.of(schedule(24), schedule(120), schedule(360));
+        Set<Integer> validSizes = Set.of(24, 120, 360);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger completeReads = new AtomicInteger();
+        AtomicInteger notFound = new AtomicInteger();
+        ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + READERS);
+        List<Future<?>> tasks = new ArrayList<>();
+        try {
+            for (int w = 0; w < WRITERS; w++) {
+                int writer = w;
+                tasks.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; running.get(); i++) {
+                        if ((i + writer) % 5 == 4) {
+                            storageService.delete(FILE_ID);
+                        } else {
+                            storageService.saveTo(FILE_ID, versions.get((i + writer) % versions.size()));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (int r = 0; r < READERS; r++) {
+                boolean raw = r % 2 == 1;
+                tasks.add(pool.submit(() -> {
+                    start.await();
+                    while (running.get()) {
+                        try {
+                            int rows = raw ? rawRows() : loadedRows();
+                            if (validSizes.contains(rows)) {
+                                completeReads.incrementAndGet();
+                            } else {
+                                failures.add((raw ? "loadRaw" : "load") + " returned " + rows + " rows");
+                            }
+                        } catch (NoSuchFileException e) {
+                            notFound.incrementAndGet();
+                        } catch (IOException | RuntimeException e) {
+                            if (isNotFound(e)) {
+                                notFound.incrementAndGet();
+                            } else {
+                                failures.add((raw ? "loadRaw" : "load") + " failed: " + e);
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            Thread.sleep(DURATION_MILLIS);
+            running.set(false);
+            for (Future<?> task : tasks) {
+                task.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(failures).isEmpty();
+        assertThat(completeReads.get()).isPositive();
+        assertThat(notFound.get()).isPositive();
+    }
+
+    /** Liest über {@link PlanStore#load(String)} und prüft die Laufnummern auf Vollständigkeit. */
+    private int loadedRows() {
+        return checkedSize(storageService.load(FILE_ID));
+    }
+
+    /** Liest über {@link PlanStore#loadRaw(String)} und parst das JSON vollständig. */
+    private int rawRows() throws Exception {
+        return checkedSize(List.of(mapper.readValue(storageService.loadRaw(FILE_ID), PaymentPlanResponse[].class)));
+    }
+
+    /** Zeilenzahl, oder -1, wenn die Laufnummern nicht lückenlos bei 1 beginnen. */
+    private static int checkedSize(List<PaymentPlanResponse> rows) {
+        for (int i = 0; i < rows.size(); i++) {
+            if (!String.valueOf(i + 1).equals(rows.get(i).getRunNumber())) {
+                return -1;
+            }
+        }
+        return rows.size();
+    }
+
+    /** {@link PlanStore#load(String)} meldet einen fehlenden Plan als RuntimeException ohne Ursache. */
+    private static boolean isNotFound(Exception e) {
+        return e.getCause() == null && e.getMessage() != null && e.getMessage().startsWith("Payment plan file not found");
+    }
+
+    private AmortizationSchedule schedule(int months) {
+        PaymentPlanRequest req = new PaymentPlanRequest();
+        req.setMode(CalculationMode.DEPOSIT);
+        req.setInitialValue(10_000);
+        req.setInterestRate(3.5);
+        req.setPaymentAmount(250);
+        req.setPaymentMonths(months);
+        req.setContractDate(LocalDate.of(2025, 1, 15));
+        req.setFirstPaymentDate(LocalDate.of(2025, 2, 28));
+        return paymentPlanService.calculate(req);
+    }
+}